@@ -0,0 +1,83 @@
+#!/usr/bin/env bash
+# Compare the regular launch against the fastlaunch profile (AOT + AppCDS).
+#
+# Usage: scripts/fastlaunch-compare.sh [runs] [--first-frame]
+#
+# Default mode stops each run right after the Spring context refresh
+# (-Dspring.context.exit=onRefresh), so it needs no display and isolates the
+# part the profile speeds up. --first-frame runs the time-to-first-frame
+# benchmark instead (needs a display). Reports wall time and peak RSS
+# (VmHWM, Linux only) as min/median/max per launch mode.
+#
+# Env: JAVA_OPTS is passed to both modes, e.g. -Dorg.lwjgl.librarypath=...
+# Build first with: ./mvnw -Pfastlaunch -DskipTests package
+set -euo pipefail
+
+RUNS=${1:-5}
+MODE=${2:-}
+
+cd "$(dirname "$0")/.."
+ROOT=$(pwd)
+JAR=$(ls target/platformer-*.jar 2>/dev/null | grep -v '\.original$' | head -n 1 || true)
+FAST_DIR=$ROOT/target/fastlaunch
+if [ -z "$JAR" ] || [ ! -f "$FAST_DIR/application.jsa" ]; then
+    echo "Build first: ./mvnw -Pfastlaunch -DskipTests package" >&2
+    exit 1
+fi
+
+if [ "$MODE" = "--first-frame" ]; then
+    STOP_ARGS="-Dgame.benchmark.firstFrame=true"
+else
+    STOP_ARGS="-Dspring.context.exit=onRefresh"
+fi
+
+# Run one launch, print "<wall ms> <peak rss kb>"
+measure() {
+    local dir=$1; shift
+    local out peak=0 start end pid hwm
+    out=$(mktemp)
+    start=$(date +%s%N)
+    (cd "$dir" && exec java ${JAVA_OPTS:-} $STOP_ARGS "$@") >"$out" 2>&1 &
+    pid=$!
+    while kill -0 "$pid" 2>/dev/null; do
+        hwm=$(awk '/^VmHWM:/ {print $2}' "/proc/$pid/status" 2>/dev/null || true)
+        [ -n "$hwm" ] && peak=$hwm
+        sleep 0.02
+    done
+    wait "$pid" || true
+    end=$(date +%s%N)
+
+    local ms=$(( (end - start) / 1000000 ))
+    if [ "$MODE" = "--first-frame" ]; then
+        local line
+        line=$(grep -m 1 '^Time to first frame: ' "$out" || true)
+        [ -n "$line" ] && ms=${line//[!0-9]/}
+    fi
+    rm -f "$out"
+    echo "$ms $peak"
+}
+
+summary() {
+    local label=$1; shift
+    local sorted count
+    sorted=($(printf '%s\n' "$@" | sort -n))
+    count=${#sorted[@]}
+    printf '  %-10s min=%s median=%s max=%s\n' "$label" "${sorted[0]}" "${sorted[$((count / 2))]}" "${sorted[$((count - 1))]}"
+}
+
+run_mode() {
+    local name=$1 dir=$2; shift 2
+    local times=() rss=() result
+    for i in $(seq 1 "$RUNS"); do
+        result=$(measure "$dir" "$@")
+        times+=("${result% *}")
+        rss+=("${result#* }")
+    done
+    echo "$name ($RUNS runs)"
+    summary "time ms" "${times[@]}"
+    summary "rss kb" "${rss[@]}"
+}
+
+FAST_JAR=$(basename "$(ls "$FAST_DIR"/platformer-*.jar | head -n 1)")
+run_mode "baseline" "$ROOT" -jar "$JAR"
+run_mode "fastlaunch" "$FAST_DIR" -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$FAST_JAR"
@@ -0,0 +1,14 @@
+#!/usr/bin/env bash
+# Launch the game from the fastlaunch build (mvn -Pfastlaunch package):
+# AOT-processed bean definitions plus the AppCDS archive from the training run.
+set -euo pipefail
+
+DIR="$(cd "$(dirname "$0")/.." && pwd)/target/fastlaunch"
+JAR=$(ls "$DIR"/platformer-*.jar 2>/dev/null | head -n 1 || true)
+if [ -z "$JAR" ] || [ ! -f "$DIR/application.jsa" ]; then
+    echo "No fastlaunch build in $DIR, run: ./mvnw -Pfastlaunch package" >&2
+    exit 1
+fi
+
+cd "$DIR"
+exec java -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true ${JAVA_OPTS:-} "$@" -jar "$(basename "$JAR")"
@@ -0,0 +1,39 @@
+#!/usr/bin/env bash
+# Time-to-first-frame benchmark.
+#
+# Launches the packaged game RUNS times with -Dgame.benchmark.firstFrame=true.
+# Each run exits right after the first interactive (home screen) frame, so the
+# numbers are comparable across releases. Needs a display, like the game.
+#
+# Usage: scripts/ttff-benchmark.sh [runs] [extra JVM args...]
+# Env:   JAR=path/to/game.jar (default: the jar in target/)
+#
+# The last run's Chrome trace is kept as startup-trace.json.
+set -euo pipefail
+
+RUNS=${1:-5}
+shift || true
+
+cd "$(dirname "$0")/.."
+
+JAR=${JAR:-$(ls target/platformer-*.jar 2>/dev/null | grep -v '\.original$' | head -n 1 || true)}
+if [ -z "$JAR" ]; then
+    ./mvnw -B -q -DskipTests package
+    JAR=$(ls target/platformer-*.jar | grep -v '\.original$' | head -n 1)
+fi
+
+results=()
+for i in $(seq 1 "$RUNS"); do
+    line=$(java -Dgame.benchmark.firstFrame=true "$@" -jar "$JAR" | grep -m 1 '^Time to first frame: ' || true)
+    if [ -z "$line" ]; then
+        echo "run $i: no first frame reported" >&2
+        exit 1
+    fi
+    ms=${line//[!0-9]/}
+    echo "run $i: ${ms}ms"
+    results+=("$ms")
+done
+
+sorted=($(printf '%s\n' "${results[@]}" | sort -n))
+count=${#sorted[@]}
+echo "runs=$count min=${sorted[0]}ms median=${sorted[$((count / 2))]}ms max=${sorted[$((count - 1))]}ms"
@@ -0,0 +1,107 @@
+package ctu.game.platformer.model.ecs;
+
+import ctu.game.platformer.model.tilemap.MapGenerator;
+import ctu.game.platformer.model.tilemap.TileMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless enemy ticks (EnemyAiSystem then MotionSystem) on a generated
+ * 2000x500 map, with the AI on a fork-join pool of the given number of
+ * threads; 1 runs it on the benchmark thread. The target stands in the
+ * middle of the map. Enemies go back to their spawn spots every iteration.
+ *
+ *   mvn -Pbench test-compile exec:exec@jmh -Djmh.args=EnemyAiBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class EnemyAiBenchmark {
+    private static final int TICKS = 60;
+    private static final int MAP_WIDTH = 2000;
+    private static final int MAP_HEIGHT = 500;
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private EntityWorld world;
+    private EnemyAiSystem enemyAi;
+    private SystemScheduler scheduler;
+    private EntityWorld spawned;
+
+    @Setup
+    public void setup() {
+        float density = entityCount * 1000f / (MAP_WIDTH * MAP_HEIGHT);
+        MapGenerator generator = new MapGenerator(new MapGenerator.Settings()
+                .size(MAP_WIDTH, MAP_HEIGHT).objectDensity(density).portals(0));
+        TileMap tileMap = new TileMap();
+        tileMap.loadMapData(generator.generate("bench"));
+
+        pool = threads == 1 ? null : new ForkJoinPool(threads);
+        world = tileMap.getEntities();
+        enemyAi = new EnemyAiSystem(tileMap, pool);
+        scheduler = new SystemScheduler().add(enemyAi).add(new MotionSystem(tileMap));
+
+        float[] spawn = generator.getSpawn();
+        enemyAi.setTarget(MAP_WIDTH / 2f * TileMap.TILE_SIZE, spawn[1], 32, 42, 0);
+
+        spawned = new EntityWorld(world.size());
+        copy(world, spawned);
+    }
+
+    @Setup(Level.Iteration)
+    public void respawn() {
+        copy(spawned, world);
+    }
+
+    private static void copy(EntityWorld from, EntityWorld to) {
+        to.clear();
+        for (int i = 0; i < from.size; i++) {
+            int id = to.create(from.mask[i]);
+            to.setPosition(id, from.x[i], from.y[i]);
+            to.setVelocity(id, from.velocityX[i], from.velocityY[i]);
+            to.setBounds(id, from.width[i], from.height[i]);
+            to.setLayer(id, from.layer[i]);
+            to.setSprite(id, from.sprite[i]);
+            to.setAiState(id, from.aiState[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public int ticks() {
+        for (int i = 0; i < TICKS; i++) {
+            scheduler.tick(world);
+        }
+        return enemyAi.getHitCount();
+    }
+}
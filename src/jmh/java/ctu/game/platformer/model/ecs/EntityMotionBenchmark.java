@@ -0,0 +1,154 @@
+package ctu.game.platformer.model.ecs;
+
+import ctu.game.platformer.model.tilemap.MapGenerator;
+import ctu.game.platformer.model.tilemap.TileMap;
+import ctu.game.platformer.model.tilemap.TileSweep;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of enemy motion (gravity, tile sweep) on a generated 2000x500
+ * map. "soa" is MotionSystem over EntityWorld's arrays; "objects" is the
+ * same work over a list of one object per enemy, in shuffled order like a
+ * list that has seen adds and removes. Enemies walk at alternating speeds
+ * and are put back on their spawn spots every iteration.
+ *
+ *   mvn -Pbench test-compile exec:exec@jmh -Djmh.args=EntityMotionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class EntityMotionBenchmark {
+    private static final int TICKS = 60;
+    private static final int MAP_WIDTH = 2000;
+    private static final int MAP_HEIGHT = 500;
+    private static final float GRAVITY = 0.8f;
+    private static final float MAX_FALL_SPEED = 20.0f;
+
+    @Param({"1000", "10000", "100000"})
+    public int entityCount;
+
+    private static class Body {
+        float x, y, velocityX, velocityY, width, height;
+        int layer, contacts;
+        String sprite;
+    }
+
+    private EntityWorld world;
+    private MotionSystem motion;
+    private TileSweep sweep;
+    private float[] spawnX;
+    private float[] spawnY;
+    private List<Body> bodies;
+
+    @Setup
+    public void setup() {
+        float density = entityCount * 1000f / (MAP_WIDTH * MAP_HEIGHT);
+        MapGenerator generator = new MapGenerator(new MapGenerator.Settings()
+                .size(MAP_WIDTH, MAP_HEIGHT).objectDensity(density).portals(0));
+        TileMap tileMap = new TileMap();
+        tileMap.loadMapData(generator.generate("bench"));
+
+        world = tileMap.getEntities();
+        motion = new MotionSystem(tileMap);
+        sweep = new TileSweep(tileMap);
+
+        int count = world.size();
+        spawnX = new float[count];
+        spawnY = new float[count];
+        bodies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            spawnX[i] = world.x[i];
+            spawnY[i] = world.y[i];
+            Body body = new Body();
+            body.width = world.width[i];
+            body.height = world.height[i];
+            body.layer = world.layer[i];
+            body.sprite = "enemy";
+            bodies.add(body);
+        }
+        Collections.shuffle(bodies, new Random(42));
+    }
+
+    @Setup(Level.Iteration)
+    public void respawn() {
+        for (int i = 0; i < spawnX.length; i++) {
+            float speed = (i & 1) == 0 ? 1.5f : -1.5f;
+            world.x[i] = spawnX[i];
+            world.y[i] = spawnY[i];
+            world.velocityX[i] = speed;
+            world.velocityY[i] = 0;
+
+            Body body = bodies.get(i);
+            body.x = spawnX[i];
+            body.y = spawnY[i];
+            body.velocityX = speed;
+            body.velocityY = 0;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public float soa() {
+        for (int i = 0; i < TICKS; i++) {
+            motion.update(world);
+        }
+        return world.x[0];
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public float objects() {
+        for (int i = 0; i < TICKS; i++) {
+            for (Body body : bodies) {
+                move(body);
+            }
+        }
+        return bodies.get(0).x;
+    }
+
+    // MotionSystem's loop body, on one object
+    private void move(Body body) {
+        body.velocityY = Math.min(body.velocityY + GRAVITY, MAX_FALL_SPEED);
+        int contact = 0;
+        sweep.setLayer(body.layer);
+
+        if (body.velocityX != 0) {
+            body.x = sweep.sweepX(body.x, body.y, body.width, body.height, body.velocityX);
+            int normal = sweep.getNormal();
+            if (normal != 0) {
+                contact |= normal < 0 ? EntityWorld.CONTACT_RIGHT : EntityWorld.CONTACT_LEFT;
+                body.velocityX = 0;
+            }
+        }
+        if (body.velocityY != 0) {
+            body.y = sweep.sweepY(body.x, body.y, body.width, body.height, body.velocityY);
+            int normal = sweep.getNormal();
+            if (normal != 0) {
+                contact |= normal < 0 ? EntityWorld.CONTACT_GROUND : EntityWorld.CONTACT_CEILING;
+                body.velocityY = 0;
+            }
+        }
+        body.contacts = contact;
+    }
+}
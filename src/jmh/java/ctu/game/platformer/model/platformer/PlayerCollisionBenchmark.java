@@ -0,0 +1,108 @@
+package ctu.game.platformer.model.platformer;
+
+import ctu.game.platformer.model.tilemap.MapGenerator;
+import ctu.game.platformer.model.tilemap.TileMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One player physics update. "stepping" is SteppingPlayer, the 1px stepping
+ * with 12 probes per step; "swept" is Player with TileSweep. The walk
+ * scenario is HeadlessRunner's scripted input over a generated map, fall
+ * drops the player from the top of the map at terminal speed until it lands.
+ *
+ *   mvn -Pbench test-compile exec:exec@jmh -Djmh.args=PlayerCollisionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PlayerCollisionBenchmark {
+    private static final int TICKS = 600;
+
+    @Param({"walk", "fall"})
+    public String scenario;
+
+    private Player player;
+    private SteppingPlayer reference;
+    private float dropX;
+    private float dropY;
+    private long seed;
+
+    @Setup
+    public void setup() {
+        MapGenerator generator = new MapGenerator(new MapGenerator.Settings().size(400, 120).seed(7));
+        TileMap tileMap = new TileMap();
+        tileMap.loadMapData(generator.generate("bench"));
+
+        float[] spawn = generator.getSpawn();
+        dropX = spawn[0];
+        dropY = tileMap.getTileSize();
+        player = new Player(spawn[0], spawn[1], 32, 42);
+        player.setTileMap(tileMap);
+        reference = new SteppingPlayer(tileMap, spawn[0], spawn[1], 32, 42);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public float swept() {
+        Random input = new Random(++seed);
+        boolean fall = scenario.equals("fall");
+        for (int i = 0; i < TICKS; i++) {
+            if (fall) {
+                if (player.isOnGround()) player.setPosition(dropX, dropY);
+            } else {
+                steer(input, i, player::setMovingLeft, player::setMovingRight, player::jump);
+            }
+            player.update();
+        }
+        return player.getY();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public float stepping() {
+        Random input = new Random(++seed);
+        boolean fall = scenario.equals("fall");
+        for (int i = 0; i < TICKS; i++) {
+            if (fall) {
+                if (reference.isOnGround()) reference.setPosition(dropX, dropY);
+            } else {
+                steer(input, i, reference::setMovingLeft, reference::setMovingRight, reference::jump);
+            }
+            reference.update();
+        }
+        return reference.getY();
+    }
+
+    // HeadlessRunner's input script
+    private static void steer(Random input, int tick, Flag left, Flag right, Runnable jump) {
+        if (tick % 120 == 0) {
+            int direction = input.nextInt(3);
+            left.set(direction == 0);
+            right.set(direction == 2);
+        }
+        if (input.nextInt(45) == 0) {
+            jump.run();
+        }
+    }
+
+    private interface Flag {
+        void set(boolean value);
+    }
+}
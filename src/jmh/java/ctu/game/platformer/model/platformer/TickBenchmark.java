@@ -0,0 +1,58 @@
+package ctu.game.platformer.model.platformer;
+
+import ctu.game.platformer.model.tilemap.MapGenerator;
+import ctu.game.platformer.model.tilemap.TileMap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Headless game ticks (player physics, object triggers) on square maps from
+ * MapGenerator, to see how per-tick cost holds up as maps grow.
+ *
+ *   mvn -Pbench test-compile exec:exec@jmh -Djmh.args=TickBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class TickBenchmark {
+    private static final int TICKS = 600;
+
+    @Param({"256", "2000", "10000"})
+    public int size;
+
+    private HeadlessRunner runner;
+
+    @Setup
+    public void setup() {
+        MapGenerator generator = new MapGenerator(new MapGenerator.Settings().size(size, size).portals(16));
+        TileMap tileMap = new TileMap();
+        tileMap.loadMapData(generator.generate("bench"));
+
+        float[] spawn = generator.getSpawn();
+        runner = new HeadlessRunner(tileMap, spawn[0], spawn[1], 42);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TICKS)
+    public float ticks() {
+        for (int i = 0; i < TICKS; i++) {
+            runner.tick();
+        }
+        return runner.getPlayer().getX();
+    }
+}
@@ -0,0 +1,145 @@
+package ctu.game.platformer.model.tilemap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collision queries as Player.checkCollision issued them before TileSweep:
+ * 12 probes around the hitbox per check. "jagged" is the old byte[][][] lookup with an
+ * isTileSolid call per layer, "bitset" is TileMap.isSolid on the flat
+ * storage with packed solidity bits.
+ *
+ *   mvn -Pbench test-compile exec:exec@jmh -Djmh.args=CollisionBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+    private static final int TILE_SIZE = 42;
+    private static final float PLAYER_WIDTH = 32;
+    private static final float PLAYER_HEIGHT = 64;
+    private static final float INSET = 2.0f;
+    private static final int CHECKS = 4096;
+    private static final int LAYERS = 3;
+
+    @Param({"25", "2000"})
+    public int size;
+
+    private TileMap tileMap;
+    private byte[][][] jaggedLayers;
+    private int currentLayer;
+    private float[] checkX;
+    private float[] checkY;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        byte[] tiles = new byte[LAYERS * size * size];
+        jaggedLayers = new byte[LAYERS][size][size];
+        for (int layer = 0; layer < LAYERS; layer++) {
+            for (int y = 0; y < size; y++) {
+                for (int x = 0; x < size; x++) {
+                    // Mostly empty with some walls and water, like the hand-made levels
+                    int roll = random.nextInt(100);
+                    byte tile = (byte) (roll < 70 ? 0 : roll < 85 ? 1 : roll < 95 ? 2 : 4);
+                    tiles[(layer * size + y) * size + x] = tile;
+                    jaggedLayers[layer][y][x] = tile;
+                }
+            }
+        }
+
+        tileMap = new TileMap();
+        tileMap.applyMapData(new MapData("bench", size, size, LAYERS, tiles,
+                new int[0], new float[0], new float[0], new int[0]));
+        currentLayer = 1;
+        tileMap.switchToLayer(currentLayer);
+
+        float extent = size * TILE_SIZE;
+        checkX = new float[CHECKS];
+        checkY = new float[CHECKS];
+        for (int i = 0; i < CHECKS; i++) {
+            checkX[i] = random.nextFloat() * (extent - PLAYER_WIDTH);
+            checkY[i] = random.nextFloat() * (extent - PLAYER_HEIGHT);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHECKS)
+    public int jagged() {
+        int hits = 0;
+        for (int i = 0; i < CHECKS; i++) {
+            float x = checkX[i];
+            float y = checkY[i];
+            hits += jaggedSolid(x + INSET, y) + jaggedSolid(x + PLAYER_WIDTH / 2, y)
+                    + jaggedSolid(x + PLAYER_WIDTH - INSET, y)
+                    + jaggedSolid(x, y + PLAYER_HEIGHT / 4) + jaggedSolid(x, y + PLAYER_HEIGHT / 2)
+                    + jaggedSolid(x, y + PLAYER_HEIGHT * 3 / 4)
+                    + jaggedSolid(x + PLAYER_WIDTH, y + PLAYER_HEIGHT / 4)
+                    + jaggedSolid(x + PLAYER_WIDTH, y + PLAYER_HEIGHT / 2)
+                    + jaggedSolid(x + PLAYER_WIDTH, y + PLAYER_HEIGHT * 3 / 4)
+                    + jaggedSolid(x + INSET, y + PLAYER_HEIGHT) + jaggedSolid(x + PLAYER_WIDTH / 2, y + PLAYER_HEIGHT)
+                    + jaggedSolid(x + PLAYER_WIDTH - INSET, y + PLAYER_HEIGHT);
+        }
+        return hits;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHECKS)
+    public int bitset() {
+        int hits = 0;
+        for (int i = 0; i < CHECKS; i++) {
+            float x = checkX[i];
+            float y = checkY[i];
+            hits += solid(x + INSET, y) + solid(x + PLAYER_WIDTH / 2, y)
+                    + solid(x + PLAYER_WIDTH - INSET, y)
+                    + solid(x, y + PLAYER_HEIGHT / 4) + solid(x, y + PLAYER_HEIGHT / 2)
+                    + solid(x, y + PLAYER_HEIGHT * 3 / 4)
+                    + solid(x + PLAYER_WIDTH, y + PLAYER_HEIGHT / 4)
+                    + solid(x + PLAYER_WIDTH, y + PLAYER_HEIGHT / 2)
+                    + solid(x + PLAYER_WIDTH, y + PLAYER_HEIGHT * 3 / 4)
+                    + solid(x + INSET, y + PLAYER_HEIGHT) + solid(x + PLAYER_WIDTH / 2, y + PLAYER_HEIGHT)
+                    + solid(x + PLAYER_WIDTH - INSET, y + PLAYER_HEIGHT);
+        }
+        return hits;
+    }
+
+    private int solid(float x, float y) {
+        return tileMap.isSolid(x, y) ? 1 : 0;
+    }
+
+    // TileMap.isSolid before the flat storage
+    private int jaggedSolid(float x, float y) {
+        int tileX = (int) (x / TILE_SIZE);
+        int tileY = (int) (y / TILE_SIZE);
+        if (tileX < 0 || tileX >= size || tileY < 0 || tileY >= size) {
+            return 1;
+        }
+        if (isTileSolid(jaggedLayers[0][tileY][tileX])) {
+            return 1;
+        }
+        if (currentLayer > 0 && isTileSolid(jaggedLayers[currentLayer][tileY][tileX])) {
+            return 1;
+        }
+        return 0;
+    }
+
+    private static boolean isTileSolid(int tileType) {
+        return tileType == 1 || tileType == 4;
+    }
+}
@@ -0,0 +1,107 @@
+package ctu.game.platformer.model.tilemap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of TileMap.checkPlayerPosition against a layer of tile-sized
+ * objects at a fixed density (one per 16 tiles), so a larger count means a
+ * larger map. "scan" is the old loop over every object on the layer,
+ * "grid" queries the ObjectGrid cells around the player.
+ *
+ *   mvn -Pbench test-compile exec:exec@jmh -Djmh.args=ObjectQueryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObjectQueryBenchmark {
+    private static final int TILE_SIZE = 42;
+    private static final int TILES_PER_OBJECT = 16;
+    private static final int CHECKS = 1024;
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int objectCount;
+
+    private List<MapObject> objects;
+    private ObjectGrid grid;
+    private float[] checkX;
+    private float[] checkY;
+    private int contacts;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(42);
+        int side = (int) Math.ceil(Math.sqrt((double) objectCount * TILES_PER_OBJECT));
+
+        objects = new ArrayList<>(objectCount);
+        grid = new ObjectGrid(TILE_SIZE);
+        for (int i = 0; i < objectCount; i++) {
+            MapObject obj = new MapObject(random.nextInt(side) * TILE_SIZE, random.nextInt(side) * TILE_SIZE,
+                    TILE_SIZE, TILE_SIZE, "coin", null);
+            objects.add(obj);
+            grid.add(obj);
+        }
+
+        checkX = new float[CHECKS];
+        checkY = new float[CHECKS];
+        for (int i = 0; i < CHECKS; i++) {
+            checkX[i] = random.nextFloat() * side * TILE_SIZE;
+            checkY[i] = random.nextFloat() * side * TILE_SIZE;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHECKS)
+    public int scan() {
+        contacts = 0;
+        for (int i = 0; i < CHECKS; i++) {
+            float x = checkX[i];
+            float y = checkY[i];
+            for (MapObject obj : objects) {
+                contact(obj, x, y);
+            }
+        }
+        return contacts;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CHECKS)
+    public int grid() {
+        contacts = 0;
+        for (int i = 0; i < CHECKS; i++) {
+            float x = checkX[i];
+            float y = checkY[i];
+            grid.forEachObject(x - 2 * TILE_SIZE, y - 2 * TILE_SIZE, x + TILE_SIZE, y + TILE_SIZE,
+                    obj -> contact(obj, x, y));
+        }
+        return contacts;
+    }
+
+    // TileMap.checkObjectContact, counting instead of interacting
+    private void contact(MapObject obj, float playerX, float playerY) {
+        float distX = playerX - (obj.getX() + obj.getWidth() / 2);
+        float distY = playerY - (obj.getY() + obj.getHeight() / 2);
+        float distance = (float) Math.sqrt(distX * distX + distY * distY);
+        if (distance < TILE_SIZE / 2 + obj.getWidth() / 2) {
+            contacts++;
+        }
+    }
+}
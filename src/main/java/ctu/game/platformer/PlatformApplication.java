@@ -1,6 +1,7 @@
 package ctu.game.platformer;
 
 import ctu.game.platformer.service.GameEngine;
+import ctu.game.platformer.util.StartupTracer;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
@@ -14,8 +15,13 @@ public class PlatformApplication implements CommandLineRunner{
 	@Autowired
 	private GameEngine gameEngine;
 
+	@SuppressWarnings("try")
 	public static void main(String[] args) {
-		SpringApplication.run(PlatformApplication.class, args);
+		long mainStart = System.nanoTime();
+		StartupTracer.record("jvm launch", "jvm", mainStart - StartupTracer.millisSinceJvmStart() * 1_000_000L, mainStart);
+		try (StartupTracer.Span ignored = StartupTracer.begin("spring context", "spring")) {
+			SpringApplication.run(PlatformApplication.class, args);
+		}
 	}
 
 	@Override
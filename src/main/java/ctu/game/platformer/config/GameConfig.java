@@ -36,4 +36,41 @@ public class GameConfig {
     public double updateRate() {
         return 60.0; // Updates per second (game logic)
     }
+
+    @Bean
+    public Long textureBudgetBytes() {
+        return 256L * 1024 * 1024; // Texture cache budget, LRU eviction above this
+    }
+
+    // Dev mode: -Dgame.dev.hotReload=true watches the resource sources and reloads edited assets
+    @Bean
+    public boolean devHotReload() {
+        return Boolean.getBoolean("game.dev.hotReload");
+    }
+
+    // -Dgame.deterministic=true: fixed point player physics and fixed-tick level swaps, for lockstep replays
+    @Bean
+    public boolean deterministicSimulation() {
+        return Boolean.getBoolean("game.deterministic");
+    }
+
+    @Bean
+    public String devResourceRoot() {
+        return System.getProperty("game.dev.resourceRoot", "src/main/resources");
+    }
+
+    @Bean
+    public Long prefetchBudgetBytes() {
+        return 64L * 1024 * 1024; // Decoded images held ahead of time by AssetPrefetcher
+    }
+
+    @Bean
+    public Long streamingMapThresholdBytes() {
+        return 16L * 1024 * 1024; // Binary maps with more tile bytes than this stream in chunks
+    }
+
+    @Bean
+    public Long mapCacheBudgetBytes() {
+        return 32L * 1024 * 1024; // Parsed maps kept for revisits, LRU eviction above this
+    }
 }
\ No newline at end of file
@@ -0,0 +1,62 @@
+package ctu.game.platformer.config;
+
+import ctu.game.platformer.util.StartupTracer;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Feeds bean creation into the startup trace: one span per bean from
+ * instantiation to fully initialized, and a nested span for the init phase
+ * (where @PostConstruct runs). Ordered first so its init span encloses the
+ * post processor that invokes @PostConstruct.
+ */
+@Component
+public class StartupTraceBeanPostProcessor implements InstantiationAwareBeanPostProcessor, PriorityOrdered {
+    private final Map<String, Long> createStarts = new ConcurrentHashMap<>();
+    private final Map<String, Long> initStarts = new ConcurrentHashMap<>();
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+        if (StartupTracer.isEnabled()) {
+            createStarts.put(beanName, System.nanoTime());
+        }
+        return null;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        if (StartupTracer.isEnabled()) {
+            initStarts.put(beanName, System.nanoTime());
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!StartupTracer.isEnabled()) {
+            return bean;
+        }
+
+        long now = System.nanoTime();
+        Long initStart = initStarts.remove(beanName);
+        if (initStart != null) {
+            StartupTracer.record("init " + beanName, "postconstruct", initStart, now);
+        }
+        Long createStart = createStarts.remove(beanName);
+        if (createStart != null) {
+            StartupTracer.record("create " + beanName, "bean", createStart, now);
+        }
+        return bean;
+    }
+}
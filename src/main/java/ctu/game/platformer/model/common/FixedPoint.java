@@ -0,0 +1,24 @@
+package ctu.game.platformer.model.common;
+
+/**
+ * 24.8 fixed point: an int counts 1/256 of a pixel. Integer arithmetic
+ * gives the same results on every JVM, JIT tier and machine, which the
+ * deterministic simulation mode relies on. Ints reach about 8 million
+ * pixels, far beyond the largest map.
+ */
+public final class FixedPoint {
+    public static final int SHIFT = 8;
+    public static final int ONE = 1 << SHIFT;
+
+    private FixedPoint() {
+    }
+
+    // Nearest fixed point value
+    public static int of(float value) {
+        return Math.round(value * ONE);
+    }
+
+    public static float toFloat(int value) {
+        return value / (float) ONE;
+    }
+}
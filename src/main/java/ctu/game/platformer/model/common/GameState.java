@@ -2,6 +2,7 @@
 package ctu.game.platformer.model.common;
 
 public enum GameState {
+    LOADING,
     PLATFORM,
     VISUAL_NOVEL,
     HOME,
@@ -0,0 +1,52 @@
+package ctu.game.platformer.model.common;
+
+/**
+ * 64-bit FNV-1a over the simulation state, fed a value at a time. Two runs
+ * that feed the same values in the same order get the same hash, so
+ * comparing one number per tick tells whether replays stayed in lockstep.
+ * Floats are hashed by their exact bits.
+ */
+public class StateHash {
+    private static final long OFFSET_BASIS = 0xCBF29CE484222325L;
+    private static final long PRIME = 0x100000001B3L;
+
+    private long hash = OFFSET_BASIS;
+
+    public StateHash add(int value) {
+        for (int shift = 0; shift < 32; shift += 8) {
+            hash = (hash ^ ((value >>> shift) & 0xFF)) * PRIME;
+        }
+        return this;
+    }
+
+    public StateHash add(long value) {
+        return add((int) value).add((int) (value >>> 32));
+    }
+
+    public StateHash add(float value) {
+        return add(Float.floatToRawIntBits(value));
+    }
+
+    public StateHash add(boolean value) {
+        return add(value ? 1 : 0);
+    }
+
+    public StateHash add(String value) {
+        if (value == null) {
+            return add(-1);
+        }
+        add(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            add((int) value.charAt(i));
+        }
+        return this;
+    }
+
+    public long get() {
+        return hash;
+    }
+
+    public void reset() {
+        hash = OFFSET_BASIS;
+    }
+}
@@ -0,0 +1,284 @@
+package ctu.game.platformer.model.ecs;
+
+import ctu.game.platformer.model.tilemap.TileMap;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Enemy behavior: patrol back and forth, turning at walls and ledges, and
+ * chase the target (the player) once it comes within range on the same
+ * layer, jumping up steps and towards a target above. Decisions look at the
+ * tile grid in front of and below the enemy and set its velocity; MotionSystem
+ * moves it afterwards, so this runs before it.
+ *
+ * Enemies are bucketed by region (bands of REGION_TILES columns) every tick
+ * and the regions are split across a ForkJoinPool. An enemy's decision only
+ * reads its own fields, the tiles and the target, and only writes its own
+ * slot, so the outcome doesn't depend on the split or on thread timing.
+ * Enemies touching the target are flagged per bucket position and collected
+ * afterwards in region order, then slot order: the same list every run.
+ *
+ * Streamed maps run on the calling thread, since ChunkedWorld isn't safe to
+ * read concurrently; the result is the same.
+ */
+public class EnemyAiSystem implements EntitySystem {
+    private static final int REQUIRED = EntityWorld.POSITION | EntityWorld.VELOCITY
+            | EntityWorld.BOUNDS | EntityWorld.AI;
+
+    // aiState: low bits the state, plus the facing bit
+    public static final int STATE_PATROL = 0;
+    public static final int STATE_CHASE = 1;
+    public static final int STATE_MASK = 0xF;
+    public static final int FACING_LEFT = 1 << 4;
+
+    private static final int TILE_SIZE = TileMap.TILE_SIZE;
+    private static final int REGION_SHIFT = 6;
+    private static final int REGION_TILES = 1 << REGION_SHIFT;
+    // Below this many enemies a task runs its regions itself instead of splitting
+    private static final int LEAF_ENEMIES = 1024;
+
+    private static final float PATROL_SPEED = 1.2f;
+    private static final float CHASE_SPEED = 2.5f;
+    private static final float JUMP_SPEED = -13.0f;
+    private static final int JUMP_COOLDOWN_TICKS = 40;
+    // Start chasing within this distance, give up beyond the larger one
+    private static final float CHASE_RANGE = 8 * TILE_SIZE;
+    private static final float LOSE_RANGE = 12 * TILE_SIZE;
+    private static final float CHASE_HEIGHT = 5 * TILE_SIZE;
+
+    private final TileMap tileMap;
+    private final ForkJoinPool pool;
+
+    private float targetX;
+    private float targetY;
+    private float targetWidth;
+    private float targetHeight;
+    private int targetLayer = -1;
+
+    // Per tick: enemy slots in region order, regionStart[r]..regionStart[r + 1] for region r
+    private int[] order = new int[0];
+    private int[] regionStart = new int[1];
+    private boolean[] touching = new boolean[0];
+    private int[] hits = new int[0];
+    private int hitCount;
+
+    // The world being updated, for the tasks
+    private EntityWorld world;
+
+    public EnemyAiSystem(TileMap tileMap) {
+        this(tileMap, ForkJoinPool.commonPool());
+    }
+
+    // A null pool or one of parallelism 1 updates on the calling thread
+    public EnemyAiSystem(TileMap tileMap, ForkJoinPool pool) {
+        this.tileMap = tileMap;
+        this.pool = pool;
+    }
+
+    // The player's box, set before each tick
+    public void setTarget(float x, float y, float width, float height, int layer) {
+        this.targetX = x;
+        this.targetY = y;
+        this.targetWidth = width;
+        this.targetHeight = height;
+        this.targetLayer = layer;
+    }
+
+    @Override
+    public void update(EntityWorld world) {
+        this.world = world;
+        int count = bucketByRegion(world);
+        int regions = regionStart.length - 1;
+
+        if (pool == null || pool.getParallelism() < 2 || tileMap.isStreamed() || count <= LEAF_ENEMIES) {
+            updateRegions(0, regions);
+        } else {
+            pool.invoke(new RegionTask(0, regions));
+        }
+
+        // Merge: touching enemies in bucket order
+        hitCount = 0;
+        for (int i = 0; i < count; i++) {
+            if (touching[i]) {
+                hits[hitCount++] = world.idAt(order[i]);
+            }
+        }
+        this.world = null;
+    }
+
+    // Counting sort of AI slots by region, stable in slot order; returns how many there are
+    private int bucketByRegion(EntityWorld world) {
+        int regions = (Math.max(1, tileMap.getMapWidth()) + REGION_TILES - 1) >> REGION_SHIFT;
+        if (regionStart.length != regions + 1) {
+            regionStart = new int[regions + 1];
+        } else {
+            Arrays.fill(regionStart, 0);
+        }
+        if (order.length < world.size) {
+            int capacity = Math.max(16, world.size + world.size / 2);
+            order = new int[capacity];
+            touching = new boolean[capacity];
+            hits = new int[capacity];
+        }
+
+        int[] mask = world.mask;
+        float[] x = world.x;
+        for (int i = 0; i < world.size; i++) {
+            if ((mask[i] & REQUIRED) == REQUIRED) {
+                regionStart[region(x[i], regions) + 1]++;
+            }
+        }
+        for (int r = 0; r < regions; r++) {
+            regionStart[r + 1] += regionStart[r];
+        }
+        int[] fill = Arrays.copyOf(regionStart, regions);
+        for (int i = 0; i < world.size; i++) {
+            if ((mask[i] & REQUIRED) == REQUIRED) {
+                order[fill[region(x[i], regions)]++] = i;
+            }
+        }
+        return regionStart[regions];
+    }
+
+    private static int region(float x, int regions) {
+        int column = (int) (x / TILE_SIZE);
+        return Math.max(0, Math.min(regions - 1, column >> REGION_SHIFT));
+    }
+
+    @SuppressWarnings("serial") // Never serialized
+    private class RegionTask extends RecursiveAction {
+        private final int first;
+        private final int end;
+
+        RegionTask(int first, int end) {
+            this.first = first;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            int enemies = regionStart[end] - regionStart[first];
+            if (end - first == 1 || enemies <= LEAF_ENEMIES) {
+                updateRegions(first, end);
+                return;
+            }
+
+            // Split where half the enemies are on each side
+            int half = regionStart[first] + enemies / 2;
+            int split = first + 1;
+            while (split < end - 1 && regionStart[split + 1] <= half) {
+                split++;
+            }
+            invokeAll(new RegionTask(first, split), new RegionTask(split, end));
+        }
+    }
+
+    private void updateRegions(int first, int end) {
+        for (int i = regionStart[first], last = regionStart[end]; i < last; i++) {
+            touching[i] = think(order[i]);
+        }
+    }
+
+    // Decide one enemy's velocity and state; true if it touches the target
+    private boolean think(int slot) {
+        EntityWorld world = this.world;
+        float x = world.x[slot];
+        float y = world.y[slot];
+        float width = world.width[slot];
+        float height = world.height[slot];
+        int layer = world.layer[slot];
+        int state = world.aiState[slot];
+        int timer = Math.max(0, world.aiTimer[slot] - 1);
+
+        if (tileMap.isStreamed() && !tileMap.isTileResident(tile(x), tile(y))) {
+            return false; // Frozen like MotionSystem leaves it
+        }
+
+        // Target offset, center to center
+        boolean sameLayer = layer == targetLayer;
+        float dx = (targetX + targetWidth / 2) - (x + width / 2);
+        float dy = (targetY + targetHeight / 2) - (y + height / 2);
+        boolean chasing = (state & STATE_MASK) == STATE_CHASE;
+        float range = chasing ? LOSE_RANGE : CHASE_RANGE;
+        chasing = sameLayer && Math.abs(dx) <= range && Math.abs(dy) <= CHASE_HEIGHT;
+
+        boolean facingLeft = (state & FACING_LEFT) != 0;
+        if (chasing && Math.abs(dx) > width / 2) {
+            facingLeft = dx < 0;
+        }
+
+        // Only steer on the ground; in the air momentum carries on
+        if ((world.contacts[slot] & EntityWorld.CONTACT_GROUND) != 0) {
+            int direction = facingLeft ? -1 : 1;
+            int front = tile(facingLeft ? x - 1 : x + width + 1);
+            int top = tile(y);
+            int bottom = tile(y + height - 1);
+            int below = tile(y + height + 1);
+            boolean wallAhead = columnSolid(layer, front, top, bottom);
+            boolean ledgeAhead = !tileMap.isSolidTile(layer, front, below);
+            float velocityX;
+
+            if (!chasing) {
+                // Patrol: turn around at walls and ledges
+                if (wallAhead || ledgeAhead) {
+                    facingLeft = !facingLeft;
+                    direction = -direction;
+                }
+                velocityX = direction * PATROL_SPEED;
+            } else if (Math.abs(dx) <= width / 2) {
+                velocityX = 0; // Underneath or on top of the target
+            } else if (wallAhead) {
+                // Jump a step if there is room above it, else wait at the wall
+                velocityX = 0;
+                if (timer == 0 && !columnSolid(layer, front, top - 1, top - 1)
+                        && !columnSolid(layer, tile(x), top - 1, top - 1)
+                        && !columnSolid(layer, tile(x + width), top - 1, top - 1)) {
+                    world.velocityY[slot] = JUMP_SPEED;
+                    timer = JUMP_COOLDOWN_TICKS;
+                    velocityX = direction * CHASE_SPEED;
+                }
+            } else if (ledgeAhead && dy <= 0) {
+                velocityX = 0; // Don't walk off while the target isn't below
+            } else {
+                velocityX = direction * CHASE_SPEED;
+            }
+
+            // Target more than two tiles up: hop towards it when there's headroom
+            if (chasing && timer == 0 && dy < -2 * TILE_SIZE
+                    && !columnSolid(layer, tile(x), top - 1, top - 1)
+                    && !columnSolid(layer, tile(x + width), top - 1, top - 1)) {
+                world.velocityY[slot] = JUMP_SPEED;
+                timer = JUMP_COOLDOWN_TICKS;
+            }
+            world.velocityX[slot] = velocityX;
+        }
+
+        world.aiState[slot] = (chasing ? STATE_CHASE : STATE_PATROL) | (facingLeft ? FACING_LEFT : 0);
+        world.aiTimer[slot] = timer;
+
+        return sameLayer && x < targetX + targetWidth && x + width > targetX
+                && y < targetY + targetHeight && y + height > targetY;
+    }
+
+    private boolean columnSolid(int layer, int column, int top, int bottom) {
+        for (int row = top; row <= bottom; row++) {
+            if (tileMap.isSolidTile(layer, column, row)) return true;
+        }
+        return false;
+    }
+
+    private static int tile(float coordinate) {
+        return (int) (coordinate / TILE_SIZE);
+    }
+
+    // Enemies that touched the target in the last tick, in region then slot order
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getHit(int index) {
+        return hits[index];
+    }
+}
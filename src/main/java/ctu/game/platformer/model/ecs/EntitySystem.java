@@ -0,0 +1,14 @@
+package ctu.game.platformer.model.ecs;
+
+/**
+ * One step of the entity update, run by SystemScheduler once per tick. A
+ * system sweeps the slots whose component mask it needs and may destroy
+ * entities; those go away when it returns.
+ */
+public interface EntitySystem {
+    void update(EntityWorld world);
+
+    default String getName() {
+        return getClass().getSimpleName();
+    }
+}
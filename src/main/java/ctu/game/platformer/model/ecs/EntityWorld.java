@@ -0,0 +1,283 @@
+package ctu.game.platformer.model.ecs;
+
+import ctu.game.platformer.model.common.StateHash;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Entities with their components stored as structure-of-arrays: one
+ * primitive array per field, indexed by a dense slot. Live entities occupy
+ * slots 0..size-1 with no holes, so a system is a linear sweep over a few
+ * arrays instead of a walk over scattered objects.
+ *
+ * Which components an entity has is a bitmask. Entity ids stay valid while
+ * slots move: destroying an entity moves the last one into its slot. Destroys
+ * are deferred to {@link #flush}, which the scheduler calls after each
+ * system, so a system may destroy while it iterates.
+ *
+ * Fields are package-private for the systems in this package; code outside
+ * goes through the accessors by id.
+ */
+public class EntityWorld {
+    // Components
+    public static final int POSITION = 1;
+    public static final int VELOCITY = 1 << 1;
+    public static final int BOUNDS = 1 << 2;
+    public static final int SPRITE = 1 << 3;
+    public static final int AI = 1 << 4;
+    public static final int GRAVITY = 1 << 5;
+    public static final int TILE_COLLISION = 1 << 6;
+
+    // Contact bits, set by MotionSystem each tick
+    public static final int CONTACT_GROUND = 1;
+    public static final int CONTACT_CEILING = 1 << 1;
+    public static final int CONTACT_LEFT = 1 << 2;
+    public static final int CONTACT_RIGHT = 1 << 3;
+
+    // Ids are slot | generation << ID_BITS, so a stale id of a reused slot doesn't match
+    private static final int ID_BITS = 22;
+    private static final int ID_MASK = (1 << ID_BITS) - 1;
+    public static final int MAX_ENTITIES = 1 << ID_BITS;
+
+    int size;
+    int[] mask;
+    float[] x;
+    float[] y;
+    float[] velocityX;
+    float[] velocityY;
+    float[] width;
+    float[] height;
+    int[] layer;
+    int[] sprite;
+    int[] aiState;
+    int[] aiTimer;
+    int[] contacts;
+
+    // Slot to id and id index to slot, for ids that outlive slot moves
+    private int[] slotId;
+    private int[] idSlot;
+    private int[] idGeneration;
+    private int nextIdIndex;
+    private int[] freeIds = new int[16];
+    private int freeIdCount;
+
+    private int[] pendingDestroy = new int[16];
+    private int pendingDestroyCount;
+
+    private final List<String> spriteNames = new ArrayList<>();
+
+    public EntityWorld() {
+        this(256);
+    }
+
+    public EntityWorld(int capacity) {
+        allocate(Math.max(16, capacity));
+        idSlot = new int[mask.length];
+        idGeneration = new int[mask.length];
+    }
+
+    private void allocate(int capacity) {
+        mask = grow(mask, capacity);
+        x = grow(x, capacity);
+        y = grow(y, capacity);
+        velocityX = grow(velocityX, capacity);
+        velocityY = grow(velocityY, capacity);
+        width = grow(width, capacity);
+        height = grow(height, capacity);
+        layer = grow(layer, capacity);
+        sprite = grow(sprite, capacity);
+        aiState = grow(aiState, capacity);
+        aiTimer = grow(aiTimer, capacity);
+        contacts = grow(contacts, capacity);
+        slotId = grow(slotId, capacity);
+    }
+
+    private static int[] grow(int[] array, int capacity) {
+        return array == null ? new int[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    private static float[] grow(float[] array, int capacity) {
+        return array == null ? new float[capacity] : Arrays.copyOf(array, capacity);
+    }
+
+    // New entity with the given components, all fields zero; returns its id
+    public int create(int components) {
+        if (size == mask.length) {
+            if (size == MAX_ENTITIES) {
+                throw new IllegalStateException("Entity limit reached: " + MAX_ENTITIES);
+            }
+            allocate(Math.min(MAX_ENTITIES, size * 2));
+        }
+
+        int idIndex;
+        if (freeIdCount > 0) {
+            idIndex = freeIds[--freeIdCount];
+        } else {
+            idIndex = nextIdIndex++;
+            if (idIndex == idSlot.length) {
+                idSlot = Arrays.copyOf(idSlot, idSlot.length * 2);
+                idGeneration = Arrays.copyOf(idGeneration, idGeneration.length * 2);
+            }
+        }
+
+        int slot = size++;
+        int id = idIndex | (idGeneration[idIndex] << ID_BITS);
+        idSlot[idIndex] = slot;
+        slotId[slot] = id;
+        mask[slot] = components;
+        x[slot] = 0;
+        y[slot] = 0;
+        velocityX[slot] = 0;
+        velocityY[slot] = 0;
+        width[slot] = 0;
+        height[slot] = 0;
+        layer[slot] = 0;
+        sprite[slot] = 0;
+        aiState[slot] = 0;
+        aiTimer[slot] = 0;
+        contacts[slot] = 0;
+        return id;
+    }
+
+    // Removed at the next flush
+    public void destroy(int id) {
+        if (!isAlive(id)) return;
+        if (pendingDestroyCount == pendingDestroy.length) {
+            pendingDestroy = Arrays.copyOf(pendingDestroy, pendingDestroyCount * 2);
+        }
+        pendingDestroy[pendingDestroyCount++] = id;
+    }
+
+    // Apply deferred destroys, moving the last entity into each freed slot
+    public void flush() {
+        for (int i = 0; i < pendingDestroyCount; i++) {
+            int id = pendingDestroy[i];
+            if (!isAlive(id)) continue; // Destroyed twice
+
+            int idIndex = id & ID_MASK;
+            int slot = idSlot[idIndex];
+            int last = --size;
+            if (slot != last) {
+                moveSlot(last, slot);
+            }
+
+            idGeneration[idIndex] = (idGeneration[idIndex] + 1) & ((1 << (32 - ID_BITS)) - 1);
+            idSlot[idIndex] = -1;
+            if (freeIdCount == freeIds.length) {
+                freeIds = Arrays.copyOf(freeIds, freeIdCount * 2);
+            }
+            freeIds[freeIdCount++] = idIndex;
+        }
+        pendingDestroyCount = 0;
+    }
+
+    private void moveSlot(int from, int to) {
+        mask[to] = mask[from];
+        x[to] = x[from];
+        y[to] = y[from];
+        velocityX[to] = velocityX[from];
+        velocityY[to] = velocityY[from];
+        width[to] = width[from];
+        height[to] = height[from];
+        layer[to] = layer[from];
+        sprite[to] = sprite[from];
+        aiState[to] = aiState[from];
+        aiTimer[to] = aiTimer[from];
+        contacts[to] = contacts[from];
+        slotId[to] = slotId[from];
+        idSlot[slotId[to] & ID_MASK] = to;
+    }
+
+    // Drop every entity, e.g. when another map loads; ids handed out before become stale
+    public void clear() {
+        for (int slot = 0; slot < size; slot++) {
+            destroy(slotId[slot]);
+        }
+        flush();
+    }
+
+    public boolean isAlive(int id) {
+        int idIndex = id & ID_MASK;
+        return idIndex < nextIdIndex && idSlot[idIndex] >= 0
+                && idGeneration[idIndex] == id >>> ID_BITS;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Id of the entity in a slot, for callers that sweep slots 0..size-1
+    public int idAt(int slot) {
+        return slotId[slot];
+    }
+
+    int slotOf(int id) {
+        if (!isAlive(id)) {
+            throw new IllegalArgumentException("No entity " + id);
+        }
+        return idSlot[id & ID_MASK];
+    }
+
+    // Sprites are names (object texture types), stored per entity as an index into this table
+    public int spriteId(String name) {
+        int index = spriteNames.indexOf(name);
+        if (index < 0) {
+            spriteNames.add(name);
+            index = spriteNames.size() - 1;
+        }
+        return index;
+    }
+
+    public String getSpriteName(int spriteId) {
+        return spriteNames.get(spriteId);
+    }
+
+    // Accessors by id
+
+    public int getComponents(int id) { return mask[slotOf(id)]; }
+    public float getX(int id) { return x[slotOf(id)]; }
+    public float getY(int id) { return y[slotOf(id)]; }
+    public float getVelocityX(int id) { return velocityX[slotOf(id)]; }
+    public float getVelocityY(int id) { return velocityY[slotOf(id)]; }
+    public float getWidth(int id) { return width[slotOf(id)]; }
+    public float getHeight(int id) { return height[slotOf(id)]; }
+    public int getLayer(int id) { return layer[slotOf(id)]; }
+    public int getSprite(int id) { return sprite[slotOf(id)]; }
+    public int getAiState(int id) { return aiState[slotOf(id)]; }
+    public int getContacts(int id) { return contacts[slotOf(id)]; }
+
+    public void setPosition(int id, float x, float y) {
+        int slot = slotOf(id);
+        this.x[slot] = x;
+        this.y[slot] = y;
+    }
+
+    public void setVelocity(int id, float velocityX, float velocityY) {
+        int slot = slotOf(id);
+        this.velocityX[slot] = velocityX;
+        this.velocityY[slot] = velocityY;
+    }
+
+    public void setBounds(int id, float width, float height) {
+        int slot = slotOf(id);
+        this.width[slot] = width;
+        this.height[slot] = height;
+    }
+
+    public void setLayer(int id, int layer) { this.layer[slotOf(id)] = layer; }
+    public void setSprite(int id, int sprite) { this.sprite[slotOf(id)] = sprite; }
+    public void setAiState(int id, int state) { this.aiState[slotOf(id)] = state; }
+
+    // Every component of every entity, in slot order
+    public void hashState(StateHash hash) {
+        hash.add(size);
+        for (int slot = 0; slot < size; slot++) {
+            hash.add(slotId[slot]).add(mask[slot]).add(x[slot]).add(y[slot])
+                    .add(velocityX[slot]).add(velocityY[slot]).add(width[slot]).add(height[slot])
+                    .add(layer[slot]).add(sprite[slot]).add(aiState[slot]).add(aiTimer[slot])
+                    .add(contacts[slot]);
+        }
+    }
+}
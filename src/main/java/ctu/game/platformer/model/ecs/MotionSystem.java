@@ -0,0 +1,82 @@
+package ctu.game.platformer.model.ecs;
+
+import ctu.game.platformer.model.tilemap.TileMap;
+import ctu.game.platformer.model.tilemap.TileSweep;
+
+/**
+ * Moves entities by their velocity. With GRAVITY they fall like the player
+ * (same gravity and fall speed cap); with TILE_COLLISION and BOUNDS they are
+ * swept through their layer's tiles with TileSweep, X then Y, and stop flush
+ * against what they hit. Contact bits say which sides were blocked.
+ *
+ * Entities on streamed chunks that aren't resident are left alone until the
+ * player comes near, so they never make the world load chunks.
+ */
+public class MotionSystem implements EntitySystem {
+    private static final int REQUIRED = EntityWorld.POSITION | EntityWorld.VELOCITY;
+    private static final int COLLIDING = EntityWorld.TILE_COLLISION | EntityWorld.BOUNDS;
+    private static final float GRAVITY = 0.8f;
+    private static final float MAX_FALL_SPEED = 20.0f;
+
+    private final TileMap tileMap;
+    private final TileSweep sweep;
+
+    public MotionSystem(TileMap tileMap) {
+        this.tileMap = tileMap;
+        this.sweep = new TileSweep(tileMap);
+    }
+
+    @Override
+    public void update(EntityWorld world) {
+        int[] mask = world.mask;
+        float[] x = world.x;
+        float[] y = world.y;
+        float[] velocityX = world.velocityX;
+        float[] velocityY = world.velocityY;
+        int[] contacts = world.contacts;
+
+        for (int i = 0, size = world.size; i < size; i++) {
+            int components = mask[i];
+            if ((components & REQUIRED) != REQUIRED) continue;
+
+            if ((components & EntityWorld.GRAVITY) != 0) {
+                velocityY[i] = Math.min(velocityY[i] + GRAVITY, MAX_FALL_SPEED);
+            }
+
+            if ((components & COLLIDING) != COLLIDING) {
+                x[i] += velocityX[i];
+                y[i] += velocityY[i];
+                contacts[i] = 0;
+                continue;
+            }
+
+            if (!tileMap.isTileResident((int) (x[i] / TileMap.TILE_SIZE), (int) (y[i] / TileMap.TILE_SIZE))) {
+                continue;
+            }
+
+            float width = world.width[i];
+            float height = world.height[i];
+            int contact = 0;
+            sweep.setLayer(world.layer[i]);
+
+            if (velocityX[i] != 0) {
+                x[i] = sweep.sweepX(x[i], y[i], width, height, velocityX[i]);
+                int normal = sweep.getNormal();
+                if (normal != 0) {
+                    contact |= normal < 0 ? EntityWorld.CONTACT_RIGHT : EntityWorld.CONTACT_LEFT;
+                    velocityX[i] = 0;
+                }
+            }
+
+            if (velocityY[i] != 0) {
+                y[i] = sweep.sweepY(x[i], y[i], width, height, velocityY[i]);
+                int normal = sweep.getNormal();
+                if (normal != 0) {
+                    contact |= normal < 0 ? EntityWorld.CONTACT_GROUND : EntityWorld.CONTACT_CEILING;
+                    velocityY[i] = 0;
+                }
+            }
+            contacts[i] = contact;
+        }
+    }
+}
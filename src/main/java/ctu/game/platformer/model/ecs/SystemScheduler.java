@@ -0,0 +1,46 @@
+package ctu.game.platformer.model.ecs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs entity systems in the order they were added, once per game tick,
+ * flushing deferred destroys after each. Keeps the time spent per system for
+ * profiling.
+ */
+public class SystemScheduler {
+    private final List<EntitySystem> systems = new ArrayList<>();
+    private long[] systemNanos = new long[0];
+    private long ticks;
+
+    public SystemScheduler add(EntitySystem system) {
+        systems.add(system);
+        systemNanos = new long[systems.size()];
+        return this;
+    }
+
+    public void tick(EntityWorld world) {
+        for (int i = 0; i < systems.size(); i++) {
+            long start = System.nanoTime();
+            systems.get(i).update(world);
+            world.flush();
+            systemNanos[i] += System.nanoTime() - start;
+        }
+        ticks++;
+    }
+
+    public List<EntitySystem> getSystems() {
+        return systems;
+    }
+
+    // Average time per tick of each system, e.g. "MotionSystem 12.3us"
+    public String getStatsSummary() {
+        StringBuilder summary = new StringBuilder();
+        for (int i = 0; i < systems.size(); i++) {
+            if (i > 0) summary.append(", ");
+            double micros = ticks == 0 ? 0 : systemNanos[i] / 1000.0 / ticks;
+            summary.append(systems.get(i).getName()).append(' ').append(String.format("%.1fus", micros));
+        }
+        return summary.toString();
+    }
+}
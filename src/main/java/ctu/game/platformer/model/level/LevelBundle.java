@@ -0,0 +1,130 @@
+package ctu.game.platformer.model.level;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes the level list. maps/level.json is the source; the build
+ * compiles it into maps/levels.bin (see {@link LevelCompiler}) so the game
+ * can load levels without parsing JSON.
+ *
+ * levels.bin layout (big-endian, strings as modified UTF-8):
+ *   int magic "LVLB", short version, short levelCount
+ *   per level: id, mapFile, float startX, float startY,
+ *              boolean hasBackground, [background], short transitionCount
+ *   per transition: name, float x, float y, targetLevel
+ */
+public final class LevelBundle {
+    public static final String SOURCE_FILE = "maps/level.json";
+    public static final String BUNDLE_FILE = "maps/levels.bin";
+
+    static final int MAGIC = 0x4C564C42; // "LVLB"
+    static final short VERSION = 1;
+
+    private LevelBundle() {
+    }
+
+    public static List<LevelData> readJson(InputStream is) {
+        JsonObject config = new Gson().fromJson(new InputStreamReader(is), JsonObject.class);
+        JsonArray levelsArray = config.getAsJsonArray("levels");
+        List<LevelData> levels = new ArrayList<>();
+
+        for (JsonElement levelElement : levelsArray) {
+            JsonObject levelObj = levelElement.getAsJsonObject();
+
+            String id = levelObj.get("id").getAsString();
+            String mapFile = levelObj.get("mapFile").getAsString();
+            float startX = levelObj.get("startX").getAsFloat();
+            float startY = levelObj.get("startY").getAsFloat();
+
+            LevelData levelData = new LevelData(id, mapFile, startX, startY);
+
+            if (levelObj.has("backgrounds") && levelObj.get("backgrounds").isJsonPrimitive()) {
+                levelData.setBackgroundFilename(levelObj.get("backgrounds").getAsString());
+            }
+
+            if (levelObj.has("transitions")) {
+                JsonObject transitions = levelObj.getAsJsonObject("transitions");
+                for (Map.Entry<String, JsonElement> entry : transitions.entrySet()) {
+                    JsonObject tp = entry.getValue().getAsJsonObject();
+                    float x = tp.get("x").getAsFloat();
+                    float y = tp.get("y").getAsFloat();
+                    String targetLevel = tp.get("targetLevel").getAsString();
+
+                    levelData.addTransition(entry.getKey(), new TransitionPoint(x, y, targetLevel));
+                }
+            }
+
+            levels.add(levelData);
+        }
+        return levels;
+    }
+
+    public static List<LevelData> read(InputStream is) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(is));
+        int magic = in.readInt();
+        short version = in.readShort();
+        if (magic != MAGIC || version != VERSION) {
+            throw new IOException("Not a level bundle (magic " + Integer.toHexString(magic) + ", version " + version + ")");
+        }
+
+        int levelCount = in.readUnsignedShort();
+        List<LevelData> levels = new ArrayList<>(levelCount);
+        for (int i = 0; i < levelCount; i++) {
+            LevelData levelData = new LevelData(in.readUTF(), in.readUTF(), in.readFloat(), in.readFloat());
+            if (in.readBoolean()) {
+                levelData.setBackgroundFilename(in.readUTF());
+            }
+
+            int transitionCount = in.readUnsignedShort();
+            for (int t = 0; t < transitionCount; t++) {
+                String name = in.readUTF();
+                levelData.addTransition(name, new TransitionPoint(in.readFloat(), in.readFloat(), in.readUTF()));
+            }
+            levels.add(levelData);
+        }
+        return levels;
+    }
+
+    public static void write(List<LevelData> levels, OutputStream os) throws IOException {
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(levels.size());
+
+        for (LevelData level : levels) {
+            out.writeUTF(level.getId());
+            out.writeUTF(level.getMapFile());
+            out.writeFloat(level.getStartX());
+            out.writeFloat(level.getStartY());
+            out.writeBoolean(level.getBackgroundFilename() != null);
+            if (level.getBackgroundFilename() != null) {
+                out.writeUTF(level.getBackgroundFilename());
+            }
+
+            out.writeShort(level.getTransitions().size());
+            for (Map.Entry<String, TransitionPoint> entry : level.getTransitions().entrySet()) {
+                TransitionPoint point = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeFloat(point.getX());
+                out.writeFloat(point.getY());
+                out.writeUTF(point.getTargetLevel());
+            }
+        }
+        out.flush();
+    }
+}
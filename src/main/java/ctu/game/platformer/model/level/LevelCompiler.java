@@ -0,0 +1,163 @@
+package ctu.game.platformer.model.level;
+
+import ctu.game.platformer.model.platformer.Player;
+import ctu.game.platformer.model.tilemap.MapData;
+import ctu.game.platformer.model.tilemap.MapLoader;
+import ctu.game.platformer.model.tilemap.TileMap;
+import ctu.game.platformer.model.tilemap.TileRegistry;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks level.json against the maps it references and compiles it into
+ * levels.bin. Run by the build over the packaged maps, or by hand:
+ *
+ *   LevelCompiler <maps directory> [--out <levels.bin>]
+ *
+ * Fails (exit code 1) if a map can't be read, the player's box at a start
+ * position is outside its map or overlaps a solid tile, or a transition leads
+ * to an unknown level.
+ */
+public class LevelCompiler {
+
+    public static void main(String[] args) throws IOException {
+        Path mapsDir = null;
+        Path out = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--out".equals(args[i]) && i + 1 < args.length) {
+                out = Paths.get(args[++i]);
+            } else {
+                mapsDir = Paths.get(args[i]);
+            }
+        }
+
+        if (mapsDir == null) {
+            System.err.println("Usage: LevelCompiler <maps directory> [--out <levels.bin>]");
+            System.exit(1);
+        }
+        if (out == null) {
+            out = mapsDir.resolve(fileName(LevelBundle.BUNDLE_FILE));
+        }
+
+        List<LevelData> levels;
+        try (InputStream is = Files.newInputStream(mapsDir.resolve(fileName(LevelBundle.SOURCE_FILE)))) {
+            levels = LevelBundle.readJson(is);
+        }
+
+        List<String> errors = validate(levels, mapsDir);
+        if (!errors.isEmpty()) {
+            for (String error : errors) {
+                System.err.println("Level error: " + error);
+            }
+            System.exit(1);
+        }
+
+        try (OutputStream os = Files.newOutputStream(out)) {
+            LevelBundle.write(levels, os);
+        }
+        System.out.println("Compiled " + levels.size() + " levels -> " + out + " (" + Files.size(out) + " bytes)");
+    }
+
+    public static List<String> validate(List<LevelData> levels, Path mapsDir) {
+        List<String> errors = new ArrayList<>();
+
+        TileRegistry registry;
+        try (InputStream is = Files.newInputStream(mapsDir.resolve(fileName(TileRegistry.DEFINITION_FILE)))) {
+            registry = TileRegistry.read(is);
+        } catch (Exception e) {
+            errors.add("cannot read tile definitions: " + e.getMessage());
+            return errors;
+        }
+
+        Set<String> ids = new HashSet<>();
+        for (LevelData level : levels) {
+            if (!ids.add(level.getId())) {
+                errors.add("duplicate level id " + level.getId());
+            }
+        }
+
+        Map<String, MapData> maps = new HashMap<>();
+        for (LevelData level : levels) {
+            String id = level.getId();
+
+            MapData map = maps.get(level.getMapFile());
+            if (map == null) {
+                try {
+                    map = MapLoader.readFile(mapsDir.resolve(level.getMapFile()));
+                    maps.put(level.getMapFile(), map);
+                } catch (Exception e) {
+                    errors.add(id + ": cannot read map " + level.getMapFile() + ": " + e.getMessage());
+                    continue;
+                }
+            }
+
+            String start = checkPosition(map, registry, level.getStartX(), level.getStartY());
+            if (start != null) {
+                errors.add(id + ": start position " + start);
+            }
+
+            for (Map.Entry<String, TransitionPoint> entry : level.getTransitions().entrySet()) {
+                TransitionPoint point = entry.getValue();
+                if (!ids.contains(point.getTargetLevel())) {
+                    errors.add(id + ": transition '" + entry.getKey() + "' targets unknown level " + point.getTargetLevel());
+                }
+                if (outside(map, point.getX(), point.getY())) {
+                    errors.add(id + ": transition '" + entry.getKey() + "' at (" + point.getX() + ", " +
+                            point.getY() + ") is outside the map");
+                }
+            }
+        }
+        return errors;
+    }
+
+    // Null if a player can start at the point, otherwise what's wrong with it
+    private static String checkPosition(MapData map, TileRegistry registry, float x, float y) {
+        if (outside(map, x, y)) {
+            return "(" + x + ", " + y + ") is outside the map";
+        }
+
+        float right = x + Player.WIDTH;
+        float bottom = y + Player.HEIGHT;
+        if (right > map.getWidth() * TileMap.TILE_SIZE || bottom > map.getHeight() * TileMap.TILE_SIZE) {
+            return "(" + x + ", " + y + ") puts the " + Player.WIDTH + "x" + Player.HEIGHT +
+                    " player box past the map edge";
+        }
+
+        // Every tile under the player box; its right and bottom edges may end flush with a tile
+        int firstX = (int) (x / TileMap.TILE_SIZE);
+        int firstY = (int) (y / TileMap.TILE_SIZE);
+        int lastX = (int) Math.ceil(right / TileMap.TILE_SIZE) - 1;
+        int lastY = (int) Math.ceil(bottom / TileMap.TILE_SIZE) - 1;
+        for (int tileY = firstY; tileY <= lastY; tileY++) {
+            for (int tileX = firstX; tileX <= lastX; tileX++) {
+                int tile = map.getTile(0, tileX, tileY);
+                if (registry.isSolid(tile)) {
+                    return "(" + x + ", " + y + ") overlaps solid tile " + tile + " at " + tileX + "," + tileY;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static boolean outside(MapData map, float x, float y) {
+        return x < 0 || y < 0
+                || x >= map.getWidth() * TileMap.TILE_SIZE
+                || y >= map.getHeight() * TileMap.TILE_SIZE;
+    }
+
+    private static String fileName(String resourcePath) {
+        return resourcePath.substring(resourcePath.lastIndexOf('/') + 1);
+    }
+}
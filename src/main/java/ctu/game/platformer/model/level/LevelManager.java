@@ -1,20 +1,20 @@
 package ctu.game.platformer.model.level;
 
-import com.google.gson.Gson;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import ctu.game.platformer.model.tilemap.TileMap;
+import ctu.game.platformer.util.DevResources;
 import ctu.game.platformer.util.ResourceLoader;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Component
 public class LevelManager {
@@ -27,54 +27,41 @@ public class LevelManager {
     private Map<String, LevelData> levels = new HashMap<>();
     private String currentLevelId = "level1"; // Default starting level
 
+    // Loads the next level during transitions while the game keeps running
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Level-Loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     public void initialize() {
         loadLevelConfig();
         loadLevel(currentLevelId);
     }
 
+    // The compiled bundle when packaged, level.json when editing in dev mode or if the bundle is missing
     private void loadLevelConfig() {
         try {
-            InputStream is = getClass().getClassLoader().getResourceAsStream("maps/level.json");
-            if (is == null) {
-                throw new RuntimeException("Cannot find level config file");
-            }
-
-            Gson gson = new Gson();
-            JsonObject config = gson.fromJson(new InputStreamReader(is), JsonObject.class);
-            JsonArray levelsArray = config.getAsJsonArray("levels");
-
-            for (JsonElement levelElement : levelsArray) {
-                JsonObject levelObj = levelElement.getAsJsonObject();
-
-                String id = levelObj.get("id").getAsString();
-                String mapFile = levelObj.get("mapFile").getAsString();
-                float startX = levelObj.get("startX").getAsFloat();
-                float startY = levelObj.get("startY").getAsFloat();
-
-                LevelData levelData = new LevelData(id, mapFile, startX, startY);
-
-                // Load backgrounds
-                // Inside loadLevelConfig() method
-                if (levelObj.has("backgrounds")) {
-                    if (levelObj.get("backgrounds").isJsonPrimitive()) {
-                        levelData.setBackgroundFilename(levelObj.get("backgrounds").getAsString());
+            List<LevelData> loaded = null;
+            if (DevResources.getOverrideRoot() == null) {
+                try (InputStream is = DevResources.open(LevelBundle.BUNDLE_FILE)) {
+                    if (is != null) {
+                        loaded = LevelBundle.read(is);
                     }
                 }
+            }
 
-                // Load transitions
-                if (levelObj.has("transitions")) {
-                    JsonObject transitions = levelObj.getAsJsonObject("transitions");
-                    for (Map.Entry<String, JsonElement> entry : transitions.entrySet()) {
-                        JsonObject tp = entry.getValue().getAsJsonObject();
-                        float x = tp.get("x").getAsFloat();
-                        float y = tp.get("y").getAsFloat();
-                        String targetLevel = tp.get("targetLevel").getAsString();
-
-                        levelData.addTransition(entry.getKey(), new TransitionPoint(x, y, targetLevel));
+            if (loaded == null) {
+                try (InputStream is = DevResources.open(LevelBundle.SOURCE_FILE)) {
+                    if (is == null) {
+                        throw new RuntimeException("Cannot find level config file");
                     }
+                    loaded = LevelBundle.readJson(is);
                 }
+            }
 
-                levels.put(id, levelData);
+            for (LevelData levelData : loaded) {
+                levels.put(levelData.getId(), levelData);
             }
         } catch (Exception e) {
             System.err.println("Error loading level config: " + e.getMessage());
@@ -104,6 +91,49 @@ public class LevelManager {
         }
     }
 
+    /**
+     * Load a level's map, objects and background images into a staged TileMap
+     * on the loader thread. Completes with null if the level can't be loaded;
+     * publish the result with {@link #commitLevel} between ticks.
+     */
+    public CompletableFuture<TileMap> loadLevelAsync(String levelId) {
+        LevelData levelData = levels.get(levelId);
+        if (levelData == null) {
+            System.err.println("Level not found: " + levelId);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        TileMap staged = tileMap.createStagingMap();
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                staged.loadMap(levelData.getMapFile());
+                if (staged.getCurrentMapFile() == null) {
+                    return null;
+                }
+                staged.setBackground(levelData.getBackgroundFilename());
+
+                // Decode the images here so the first frame only uploads them
+                staged.prefetchTextures();
+                return staged;
+            } catch (Exception e) {
+                System.err.println("Error loading level: " + e.getMessage());
+                e.printStackTrace();
+                return null;
+            }
+        }, loader);
+    }
+
+    // Make a staged level current. Game thread only.
+    public void commitLevel(String levelId, TileMap staged) {
+        currentLevelId = levelId;
+        tileMap.adopt(staged);
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        loader.shutdownNow();
+    }
+
     public float[] getPlayerStartPosition() {
         LevelData levelData = levels.get(currentLevelId);
         return new float[] { levelData.getStartX(), levelData.getStartY() };
@@ -0,0 +1,81 @@
+package ctu.game.platformer.model.level;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A level's transition triggers bucketed by grid cell, so finding the one
+ * the player stands in costs a lookup of the player's cell and a test of the
+ * few triggers overlapping it, however many the level has.
+ *
+ * A trigger fires while the player position is within halfWidth/halfHeight
+ * of its point. Each trigger is listed in every cell that volume touches.
+ * If several overlap the player, the first in the level's transition order
+ * wins.
+ */
+public final class TransitionIndex {
+    private static final int[] NONE = new int[0];
+
+    private final TransitionPoint[] points;
+    private final float cellSize;
+    private final float halfWidth;
+    private final float halfHeight;
+    private final Map<Long, int[]> cells = new HashMap<>();
+
+    public TransitionIndex(LevelData level, float cellSize, float halfWidth, float halfHeight) {
+        this.points = level.getTransitions().values().toArray(new TransitionPoint[0]);
+        this.cellSize = cellSize;
+        this.halfWidth = halfWidth;
+        this.halfHeight = halfHeight;
+
+        Map<Long, List<Integer>> buckets = new HashMap<>();
+        for (int i = 0; i < points.length; i++) {
+            TransitionPoint point = points[i];
+            int minX = cell(point.getX() - halfWidth);
+            int maxX = cell(point.getX() + halfWidth);
+            int minY = cell(point.getY() - halfHeight);
+            int maxY = cell(point.getY() + halfHeight);
+
+            for (int cy = minY; cy <= maxY; cy++) {
+                for (int cx = minX; cx <= maxX; cx++) {
+                    buckets.computeIfAbsent(key(cx, cy), k -> new ArrayList<>()).add(i);
+                }
+            }
+        }
+
+        // Indices are added in ascending order, which keeps the first-wins rule
+        for (Map.Entry<Long, List<Integer>> entry : buckets.entrySet()) {
+            cells.put(entry.getKey(), entry.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    // The trigger containing the position, or null
+    public TransitionPoint find(float x, float y) {
+        int[] candidates = cells.getOrDefault(key(cell(x), cell(y)), NONE);
+        for (int index : candidates) {
+            TransitionPoint point = points[index];
+            if (Math.abs(x - point.getX()) < halfWidth && Math.abs(y - point.getY()) < halfHeight) {
+                return point;
+            }
+        }
+        return null;
+    }
+
+    public int getTriggerCount() {
+        return points.length;
+    }
+
+    public int getCellCount() {
+        return cells.size();
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int cx, int cy) {
+        return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,233 @@
+package ctu.game.platformer.model.platformer;
+
+import ctu.game.platformer.model.common.StateHash;
+import ctu.game.platformer.model.ecs.EnemyAiSystem;
+import ctu.game.platformer.model.ecs.MotionSystem;
+import ctu.game.platformer.model.ecs.SystemScheduler;
+import ctu.game.platformer.model.tilemap.MapGenerator;
+import ctu.game.platformer.model.tilemap.TileMap;
+import ctu.game.platformer.util.DevResources;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs the platformer simulation without a window, GL context or Spring:
+ * a player driven by seeded scripted input over a map, at full speed. For
+ * stress tests and for profiling the per-tick work on large maps.
+ *
+ *   HeadlessRunner [--ticks 36000] [--seed 1]
+ *                  [--map <name> [--root <dir>]]
+ *                  [--width 2000] [--height 500] [--layers 2] [--objects-per-1000 2] [--portals 16]
+ *                  [--deterministic] [--hash] [--hash-log <file>] [--ai-threads <n>]
+ *
+ * With --map the file is read like in dev mode, from <root>/maps/<name>;
+ * binary maps above 16MB stream in chunks as in the game. Otherwise a map is
+ * generated in memory by MapGenerator with the given settings.
+ *
+ * --deterministic runs the player on fixed point physics. --hash hashes the
+ * state after every tick and prints a hash of the whole run; --hash-log also
+ * writes each tick's hash, one "tick hash" line per tick, so two logs can be
+ * compared for the first tick that differs (scripts/determinism-check.sh).
+ *
+ * Enemy AI runs on the common fork-join pool, or on a pool of --ai-threads
+ * workers (1 runs it on the main thread); the hash is the same either way.
+ */
+public class HeadlessRunner {
+    private static final int PLAYER_WIDTH = Player.WIDTH;
+    private static final int PLAYER_HEIGHT = Player.HEIGHT;
+    private static final int VIEW_WIDTH = 1280;
+    private static final int VIEW_HEIGHT = 720;
+    private static final long STREAMING_THRESHOLD_BYTES = 16L * 1024 * 1024;
+
+    private final TileMap tileMap;
+    private final Player player;
+    private final EnemyAiSystem enemyAi;
+    private final SystemScheduler entitySystems;
+    private final Random input;
+    private final StateHash stateHash = new StateHash();
+    private int ticks;
+
+    public HeadlessRunner(TileMap tileMap, float spawnX, float spawnY, long seed) {
+        this(tileMap, spawnX, spawnY, seed, ForkJoinPool.commonPool());
+    }
+
+    // Enemy AI on the given pool; null runs it on the calling thread
+    public HeadlessRunner(TileMap tileMap, float spawnX, float spawnY, long seed, ForkJoinPool aiPool) {
+        this.tileMap = tileMap;
+        this.player = new Player(spawnX, spawnY, PLAYER_WIDTH, PLAYER_HEIGHT);
+        this.player.setTileMap(tileMap);
+        this.enemyAi = new EnemyAiSystem(tileMap, aiPool);
+        this.entitySystems = new SystemScheduler().add(enemyAi).add(new MotionSystem(tileMap));
+        this.input = new Random(seed);
+    }
+
+    // One game tick, in PlatformerSystem.update order
+    public void tick() {
+        // Change direction every two seconds or so, jump now and then
+        if (ticks % 120 == 0) {
+            int direction = input.nextInt(3);
+            player.setMovingLeft(direction == 0);
+            player.setMovingRight(direction == 2);
+        }
+        if (input.nextInt(45) == 0) {
+            player.jump();
+        }
+
+        tileMap.applyTileEdits();
+        player.update();
+        enemyAi.setTarget(player.getX(), player.getY(), PLAYER_WIDTH, PLAYER_HEIGHT, tileMap.getCurrentLayer());
+        entitySystems.tick(tileMap.getEntities());
+        tileMap.checkPlayerPosition(player.getX(), player.getY());
+        tileMap.updateStreaming(player.getX() - VIEW_WIDTH / 2f, player.getY() - VIEW_HEIGHT / 2f,
+                VIEW_WIDTH, VIEW_HEIGHT);
+        ticks++;
+    }
+
+    // Hash of the state after the last tick: tick count, player, entities, enemy hits, layer and map
+    public long hashState() {
+        stateHash.reset();
+        stateHash.add(ticks);
+        player.hashState(stateHash);
+        tileMap.getEntities().hashState(stateHash);
+        stateHash.add(enemyAi.getHitCount());
+        for (int i = 0; i < enemyAi.getHitCount(); i++) {
+            stateHash.add(enemyAi.getHit(i));
+        }
+        stateHash.add(tileMap.getCurrentLayer()).add(tileMap.getCurrentMapFile());
+        return stateHash.get();
+    }
+
+    public Player getPlayer() {
+        return player;
+    }
+
+    public SystemScheduler getEntitySystems() {
+        return entitySystems;
+    }
+
+    public int getTicks() {
+        return ticks;
+    }
+
+    public static void main(String[] args) throws IOException {
+        MapGenerator.Settings settings = new MapGenerator.Settings().size(2000, 500).portals(16);
+        int tickCount = 36_000;
+        long seed = 1;
+        String map = null;
+        String root = ".";
+        boolean deterministic = false;
+        boolean hash = false;
+        String hashLog = null;
+        int aiThreads = 0;
+
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            // Flags without a value
+            if (option.equals("--deterministic")) {
+                deterministic = true;
+                continue;
+            }
+            if (option.equals("--hash")) {
+                hash = true;
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                System.err.println("Missing value for " + option);
+                System.exit(1);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--ticks" -> tickCount = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                case "--map" -> map = value;
+                case "--root" -> root = value;
+                case "--width" -> settings.width = Integer.parseInt(value);
+                case "--height" -> settings.height = Integer.parseInt(value);
+                case "--layers" -> settings.layers = Integer.parseInt(value);
+                case "--objects-per-1000" -> settings.objectsPer1000Tiles = Float.parseFloat(value);
+                case "--portals" -> settings.portals = Integer.parseInt(value);
+                case "--hash-log" -> hashLog = value;
+                case "--ai-threads" -> aiThreads = Integer.parseInt(value);
+                default -> {
+                    System.err.println("Unknown option " + option);
+                    System.exit(1);
+                }
+            }
+        }
+
+        long loadStart = System.nanoTime();
+        TileMap tileMap = new TileMap();
+        tileMap.setStreamingMapThresholdBytes(STREAMING_THRESHOLD_BYTES);
+        float[] spawn;
+
+        if (map != null) {
+            DevResources.setOverrideRoot(Paths.get(root));
+            tileMap.loadMap(map);
+            if (tileMap.getCurrentMapFile() == null) {
+                System.err.println("Could not load map " + map);
+                System.exit(1);
+            }
+            spawn = findSpawn(tileMap);
+        } else {
+            MapGenerator generator = new MapGenerator(settings.seed(seed));
+            tileMap.loadMapData(generator.generate("generated"));
+            spawn = generator.getSpawn();
+        }
+        long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+
+        ForkJoinPool aiPool = aiThreads == 0 ? ForkJoinPool.commonPool()
+                : aiThreads == 1 ? null : new ForkJoinPool(aiThreads);
+        HeadlessRunner runner = new HeadlessRunner(tileMap, spawn[0], spawn[1], seed, aiPool);
+        runner.getPlayer().setDeterministic(deterministic);
+        long elapsed;
+
+        if (hash || hashLog != null) {
+            StateHash runHash = new StateHash();
+            BufferedWriter log = hashLog != null ? Files.newBufferedWriter(Paths.get(hashLog)) : null;
+            long start = System.nanoTime();
+            for (int i = 0; i < tickCount; i++) {
+                runner.tick();
+                long tickHash = runner.hashState();
+                runHash.add(tickHash);
+                if (log != null) {
+                    log.write(runner.getTicks() + " " + Long.toHexString(tickHash));
+                    log.newLine();
+                }
+            }
+            elapsed = System.nanoTime() - start;
+            if (log != null) {
+                log.close();
+            }
+            System.out.println("Run hash: " + Long.toHexString(runHash.get()));
+        } else {
+            long start = System.nanoTime();
+            for (int i = 0; i < tickCount; i++) {
+                runner.tick();
+            }
+            elapsed = System.nanoTime() - start;
+        }
+
+        Player player = runner.getPlayer();
+        System.out.printf("%dx%d map loaded in %dms; %d ticks in %dms, %.0f ns/tick; player at (%.1f, %.1f)%n",
+                tileMap.getMapWidth(), tileMap.getMapHeight(), loadMillis, tickCount, elapsed / 1_000_000,
+                (double) elapsed / tickCount, player.getX(), player.getY());
+        System.out.println(tileMap.getEntities().size() + " entities; " + runner.getEntitySystems().getStatsSummary());
+    }
+
+    // First open spot above solid ground in the third column
+    private static float[] findSpawn(TileMap tileMap) {
+        int tile = tileMap.getTileSize();
+        float x = 2 * tile;
+        for (int y = 1; y < tileMap.getMapHeight(); y++) {
+            if (tileMap.isSolid(x, y * tile)) {
+                return new float[] { x, Math.max(tile, (y - 2) * tile) };
+            }
+        }
+        return new float[] { x, tile };
+    }
+}
@@ -1,19 +1,19 @@
 package ctu.game.platformer.model.platformer;
 
+import ctu.game.platformer.model.common.FixedPoint;
 import ctu.game.platformer.model.common.GameObject;
+import ctu.game.platformer.model.common.StateHash;
+import ctu.game.platformer.model.tilemap.TextureManager;
 import ctu.game.platformer.model.tilemap.TileMap;
+import ctu.game.platformer.model.tilemap.TileSweep;
 import org.lwjgl.opengl.GL11;
 import static org.lwjgl.opengl.GL11.*;
 
-import java.io.InputStream;
-import java.nio.ByteBuffer;
-import org.lwjgl.BufferUtils;
-import javax.imageio.ImageIO;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-
 public class Player extends GameObject {
+    // The player's collision box in the game; LevelCompiler checks start positions against it
+    public static final int WIDTH = 32;
+    public static final int HEIGHT = 42;
+
     private float velocityX = 0;
     private float velocityY = 0;
     private boolean movingLeft = false;
@@ -30,19 +30,29 @@ public class Player extends GameObject {
     private float jumpVelocityX = -8.0f; // Horizontal velocity when jumping left
     private float jumpVelocityRight = 8.0f; // Horizontal velocity when jumping right
     private final float airControlFactor = 0.3f;
-    // Smaller step for more precise collision detection
-    private final float COLLISION_STEP = 1.0f;
+    private TileSweep sweep;
+    // Sides blocked during the last update: -1 wall to the right / ground below, 1 the other way, 0 free
+    private int contactNormalX = 0;
+    private int contactNormalY = 0;
+
+    // Deterministic mode: position and velocity as FixedPoint ints, the floats only mirror them
+    private boolean deterministic = false;
+    private int fixedX;
+    private int fixedY;
+    private int fixedVelocityX;
+    private int fixedVelocityY;
 
 
 
     private int textureId = -1;
+    private String spritePath;
     private int spriteRows = 3;
     private int spriteColumns = 8;
     private int currentFrame = 0;
     private int currentRow = 0; // 0=idle, 1=run, 2=jump/fall
 
-    private long lastFrameTime = 0;
-    private long frameDuration = 100; // milliseconds between frame changes
+    private int animationTicks = 0;
+    private final int frameTicks = 6; // ticks between frame changes, 100ms at 60 updates per second
     private int animationRow = 0;
 
     private boolean facingRight = true;
@@ -57,50 +67,14 @@ public class Player extends GameObject {
     private PlayerState currentState = PlayerState.IDLE;
     private PlayerState previousState = PlayerState.IDLE;
 
+    // Through the TextureManager cache, so hot reload reaches the sprite sheet
     public void loadSprite(String spritePath) {
-        try {
-            // Load the image from classpath resources
-            InputStream is = getClass().getClassLoader().getResourceAsStream(spritePath);
-            if (is == null) {
-                throw new IOException("Cannot find resource: " + spritePath);
-            }
-
-            BufferedImage image = ImageIO.read(is);
-            int width = image.getWidth();
-            int height = image.getHeight();
-
-            // Convert the image to a byte buffer
-            ByteBuffer buffer = BufferUtils.createByteBuffer(width * height * 4);
-
-            for (int y = 0; y < height; y++) {
-                for (int x = 0; x < width; x++) {
-                    int pixel = image.getRGB(x, y);
-                    buffer.put((byte) ((pixel >> 16) & 0xFF)); // Red
-                    buffer.put((byte) ((pixel >> 8) & 0xFF));  // Green
-                    buffer.put((byte) (pixel & 0xFF));         // Blue
-                    buffer.put((byte) ((pixel >> 24) & 0xFF)); // Alpha
-                }
-            }
-            buffer.flip();
-
-            // Generate texture
-            textureId = glGenTextures();
-            glBindTexture(GL_TEXTURE_2D, textureId);
-
-            // Set texture parameters
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_REPEAT);
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_REPEAT);
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
-            glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
-
-            // Upload texture data
-            glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA, width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, buffer);
-            isloadSprite=true;
-            System.out.println("Sprite loaded successfully: " + width + "x" + height);
-        } catch (IOException e) {
-            System.err.println("Failed to load sprite: " + e.getMessage());
-            e.printStackTrace();
+        if (this.spritePath != null) {
+            TextureManager.releaseTexture(this.spritePath);
         }
+        textureId = TextureManager.acquireTexture(spritePath);
+        this.spritePath = spritePath;
+        isloadSprite = true;
     }
 
     public Player(float x, float y, float width, float height) {
@@ -116,6 +90,7 @@ public class Player extends GameObject {
 
     public void setTileMap(TileMap tileMap) {
         this.tileMap = tileMap;
+        this.sweep = tileMap != null ? new TileSweep(tileMap) : null;
         if (tileMap != null) {
             this.showCollision = tileMap.isShowingCollision();
         }
@@ -173,24 +148,34 @@ public class Player extends GameObject {
                 break;
         }
 
-        // Animate through rows (3 frames per animation)
-        long now = System.currentTimeMillis();
-        if (now - lastFrameTime > frameDuration) {
-            animationRow = (animationRow + 1) % 3;
-            lastFrameTime = now;
-        }
-
         // Set the current row to the animation frame
         currentRow = animationRow;
     }
 
     @Override
     public void update() {
+        // Animate through rows (3 frames per animation), counted in ticks so replays match
+        if (++animationTicks >= frameTicks) {
+            animationTicks = 0;
+            animationRow = (animationRow + 1) % 3;
+        }
+
+        if (deterministic) {
+            updateFixed();
+            return;
+        }
+
         // Ground movement has full control
         if (isOnGround) {
-            velocityX = 0;
-            if (movingLeft) velocityX -= speed;
-            if (movingRight) velocityX += speed;
+            float targetVelocityX = 0;
+            if (movingLeft) targetVelocityX -= speed;
+            if (movingRight) targetVelocityX += speed;
+
+            // Full grip reaches the target at once, slippery tiles ease towards it
+            float grip = tileMap != null
+                    ? Math.max(0, Math.min(1, tileMap.getFrictionAt(getX() + getWidth() / 2, getY() + getHeight() + 1)))
+                    : 1;
+            velocityX += (targetVelocityX - velocityX) * grip;
             jumping = false; // Reset jumping state when on ground
         } else {
             // In mid-air: player has some control but momentum persists
@@ -219,59 +204,121 @@ public class Player extends GameObject {
         // Check for ground after movement
         checkGroundContact();
     }
+    /**
+     * update() in FixedPoint integer math. Constants are the float ones rounded
+     * to 1/256 px (gravity 0.8 is 205/256, air drag 0.98 is 251/256), so this
+     * plays almost, but not exactly, like the float physics.
+     */
+    private void updateFixed() {
+        int speedFixed = FixedPoint.of(speed);
+        if (isOnGround) {
+            int target = 0;
+            if (movingLeft) target -= speedFixed;
+            if (movingRight) target += speedFixed;
+
+            int grip = FixedPoint.ONE;
+            if (tileMap != null) {
+                float friction = tileMap.getFrictionAt(FixedPoint.toFloat(fixedX + FixedPoint.of(getWidth()) / 2),
+                        FixedPoint.toFloat(fixedY + FixedPoint.of(getHeight()) + FixedPoint.ONE));
+                grip = FixedPoint.of(Math.max(0, Math.min(1, friction)));
+            }
+            fixedVelocityX += (target - fixedVelocityX) * grip / FixedPoint.ONE;
+            jumping = false;
+        } else {
+            int control = FixedPoint.of(speed * airControlFactor);
+            if (movingLeft) {
+                fixedVelocityX = Math.max(fixedVelocityX - control, -speedFixed);
+            }
+            if (movingRight) {
+                fixedVelocityX = Math.min(fixedVelocityX + control, speedFixed);
+            }
+            fixedVelocityX = fixedVelocityX * FixedPoint.of(0.98f) / FixedPoint.ONE;
+        }
+
+        fixedVelocityY = Math.min(fixedVelocityY + FixedPoint.of(gravity), FixedPoint.of(maxFallSpeed));
+
+        moveFixed();
+
+        isOnGround = false;
+        if (sweep != null) {
+            // Same reach as checkGroundContact
+            int width = FixedPoint.of(getWidth());
+            int height = FixedPoint.of(getHeight());
+            int inset = FixedPoint.of(TileSweep.INSET);
+            int top = fixedY + height + FixedPoint.ONE;
+            isOnGround = sweep.overlapsSolidFixed(fixedX, top + height / 4, fixedX + 2 * width, top + height * 3 / 4)
+                    || sweep.overlapsSolidFixed(fixedX + inset, top, fixedX + 2 * width - inset, top + height);
+        }
+
+        velocityX = FixedPoint.toFloat(fixedVelocityX);
+        velocityY = FixedPoint.toFloat(fixedVelocityY);
+        super.setPosition(FixedPoint.toFloat(fixedX), FixedPoint.toFloat(fixedY));
+    }
+
+    private void moveFixed() {
+        contactNormalX = 0;
+        contactNormalY = 0;
+        if (sweep == null) {
+            fixedX += fixedVelocityX;
+            fixedY += fixedVelocityY;
+            return;
+        }
+
+        int width = FixedPoint.of(getWidth());
+        int height = FixedPoint.of(getHeight());
+        if (fixedVelocityX != 0) {
+            fixedX = sweep.sweepFixedX(fixedX, fixedY, width, height, fixedVelocityX);
+            contactNormalX = sweep.getNormal();
+        }
+        if (fixedVelocityY != 0) {
+            fixedY = sweep.sweepFixedY(fixedX, fixedY, width, height, fixedVelocityY);
+            contactNormalY = sweep.getNormal();
+            if (contactNormalY != 0) {
+                fixedVelocityY = 0;
+            }
+        }
+    }
+
     private void checkGroundContact() {
-        // Check if there's ground 1 pixel below the player
-        isOnGround = checkCollision(getX(), getY() + getHeight() + 1) ||
-                checkCollision(getX() + getWidth()/2, getY() + getHeight() + 1) ||
-                checkCollision(getX() + getWidth(), getY() + getHeight() + 1);
+        if (sweep == null) {
+            isOnGround = false;
+            return;
+        }
+        // The area the hitbox checks used to cover when shifted below the feet: a body height
+        // deep, from the left edge to a body width past the right one. Jumps depend on it.
+        float top = getY() + getHeight() + 1;
+        isOnGround = sweep.overlapsSolid(getX(), top + getHeight() / 4, getX() + 2 * getWidth(), top + getHeight() * 3 / 4)
+                || sweep.overlapsSolid(getX() + TileSweep.INSET, top,
+                        getX() + 2 * getWidth() - TileSweep.INSET, top + getHeight());
     }
 
     private void moveWithCollisionCheck() {
+        contactNormalX = 0;
+        contactNormalY = 0;
         if (tileMap == null) {
             setPosition(getX() + velocityX, getY() + velocityY);
             return;
         }
 
-        // Move along X axis with proper collision detection
-        float remainingX = velocityX;
-        if (remainingX != 0) {
-            float directionX = Math.signum(remainingX);
-            while (Math.abs(remainingX) > 0) {
-                float stepX = directionX * Math.min(COLLISION_STEP, Math.abs(remainingX));
-                float newX = getX() + stepX;
-
-                if (!checkCollision(newX, getY())) {
-                    setPosition(newX, getY());
-                } else {
-                    // Stop X movement if collision detected
-                    break;
-                }
-
-                remainingX -= stepX;
-            }
+        // X then Y, each swept across only the tile columns/rows the box edge passes
+        if (velocityX != 0) {
+            float newX = sweep.sweepX(getX(), getY(), getWidth(), getHeight(), velocityX);
+            contactNormalX = sweep.getNormal();
+            setPosition(newX, getY());
         }
 
-        // Move along Y axis with proper collision detection
-        float remainingY = velocityY;
-        if (remainingY != 0) {
-            float directionY = Math.signum(remainingY);
-            while (Math.abs(remainingY) > 0) {
-                float stepY = directionY * Math.min(COLLISION_STEP, Math.abs(remainingY));
-                float newY = getY() + stepY;
+        if (velocityY != 0) {
+            float newY = sweep.sweepY(getX(), getY(), getWidth(), getHeight(), velocityY);
+            contactNormalY = sweep.getNormal();
+            setPosition(getX(), newY);
 
-                if (!checkCollision(getX(), newY)) {
-                    setPosition(getX(), newY);
-                } else {
-                    // Hit something - if moving down, we hit ground
-                    if (velocityY > 0) {
-                        isOnGround = true;
-                    }
-                    // Reset vertical velocity on collision
-                    velocityY = 0;
-                    break;
+            if (contactNormalY != 0) {
+                // Hit something - if moving down, we hit ground
+                if (velocityY > 0) {
+                    isOnGround = true;
                 }
-
-                remainingY -= stepY;
+                // Reset vertical velocity on collision
+                velocityY = 0;
             }
         }
     }
@@ -347,22 +394,15 @@ public class Player extends GameObject {
         GL11.glVertex2f(getX(), getY() + getHeight());
         GL11.glEnd();
 
-        // Draw the collision check points
-        float inset = 0.1f;
-
-        // Top edge (3 points)
-        drawCollisionPoint(getX() + inset, getY(), 3.0f);
-        drawCollisionPoint(getX() + getWidth()/2, getY(), 3.0f);
-        drawCollisionPoint(getX() + getWidth() - inset, getY(), 3.0f);
-
-        // Middle (2 points on sides)
-        drawCollisionPoint(getX(), getY() + getHeight()/2, 3.0f);
-        drawCollisionPoint(getX() + getWidth(), getY() + getHeight()/2, 3.0f);
-
-        // Bottom edge (3 points)
-        drawCollisionPoint(getX() + inset, getY() + getHeight(), 3.0f);
-        drawCollisionPoint(getX() + getWidth()/2, getY() + getHeight(), 3.0f);
-        drawCollisionPoint(getX() + getWidth() - inset, getY() + getHeight(), 3.0f);
+        // Mark the sides blocked this tick
+        float midX = getX() + getWidth() / 2;
+        float midY = getY() + getHeight() / 2;
+        if (contactNormalX != 0) {
+            drawCollisionPoint(contactNormalX < 0 ? getX() + getWidth() : getX(), midY, 5.0f);
+        }
+        if (contactNormalY != 0) {
+            drawCollisionPoint(midX, contactNormalY < 0 ? getY() + getHeight() : getY(), 5.0f);
+        }
     }
 
     private void drawCollisionPoint(float x, float y, float size) {
@@ -373,42 +413,17 @@ public class Player extends GameObject {
         GL11.glEnd();
     }
 
-    private boolean checkCollision(float x, float y) {
-        if (tileMap == null) return false;
-
-        // Create a small inset to avoid edge cases
-        float inset = 2.0f;  // Increased inset for better corner handling
-
-        // Check multiple points around the player's hitbox for more reliable collision
-        return
-                // Top edge (3 points)
-                tileMap.isSolid(x + inset, y) ||
-                        tileMap.isSolid(x + getWidth()/2, y) ||
-                        tileMap.isSolid(x + getWidth() - inset, y) ||
-
-                        // Middle (2 points on sides)
-                        tileMap.isSolid(x, y + getHeight()/4) ||
-                        tileMap.isSolid(x, y + getHeight()/2) ||
-                        tileMap.isSolid(x, y + getHeight()*3/4) ||
-                        tileMap.isSolid(x + getWidth(), y + getHeight()/4) ||
-                        tileMap.isSolid(x + getWidth(), y + getHeight()/2) ||
-                        tileMap.isSolid(x + getWidth(), y + getHeight()*3/4) ||
-
-                        // Bottom edge (3 points)
-                        tileMap.isSolid(x + inset, y + getHeight()) ||
-                        tileMap.isSolid(x + getWidth()/2, y + getHeight()) ||
-                        tileMap.isSolid(x + getWidth() - inset, y + getHeight());
-    }
-
     // Toggle collision visualization
     public void toggleCollisionView() {
         showCollision = !showCollision;
     }
 
     public void cleanup() {
-        if (textureId != -1) {
-            glDeleteTextures(textureId);
+        if (spritePath != null) {
+            TextureManager.releaseTexture(spritePath);
+            spritePath = null;
             textureId = -1;
+            isloadSprite = false;
         }
     }
     // Jump method
@@ -423,12 +438,56 @@ public class Player extends GameObject {
             } else if (movingRight) {
                 velocityX = jumpVelocityRight * 1.5f;
             }
+            if (deterministic) {
+                fixedVelocityX = FixedPoint.of(velocityX);
+                fixedVelocityY = FixedPoint.of(velocityY);
+            }
 
             // Play jump sound
             // audioManager.playSoundEffect("jump.wav");
         }
     }
 
+    // Teleports (spawn, level start) land on whole 1/256 px in deterministic mode
+    @Override
+    public void setPosition(float x, float y) {
+        super.setPosition(x, y);
+        if (deterministic) {
+            fixedX = FixedPoint.of(x);
+            fixedY = FixedPoint.of(y);
+        }
+    }
+
+    /**
+     * Switch to FixedPoint physics, for lockstep replays and bot runs: the same
+     * inputs then give the same state on any JVM. Takes over the current
+     * position and velocity.
+     */
+    public void setDeterministic(boolean deterministic) {
+        this.deterministic = deterministic;
+        if (deterministic) {
+            fixedVelocityX = FixedPoint.of(velocityX);
+            fixedVelocityY = FixedPoint.of(velocityY);
+            setPosition(getX(), getY());
+        }
+    }
+
+    public boolean isDeterministic() {
+        return deterministic;
+    }
+
+    // Everything update() carries from tick to tick
+    public void hashState(StateHash hash) {
+        if (deterministic) {
+            hash.add(fixedX).add(fixedY).add(fixedVelocityX).add(fixedVelocityY);
+        } else {
+            hash.add(getX()).add(getY()).add(velocityX).add(velocityY);
+        }
+        hash.add(isOnGround).add(jumping).add(movingLeft).add(movingRight)
+                .add(contactNormalX).add(contactNormalY)
+                .add(animationTicks).add(animationRow);
+    }
+
     // Getters and setters for movement flags
     public void setMovingLeft(boolean movingLeft) {
         this.movingLeft = movingLeft;
@@ -444,4 +503,20 @@ public class Player extends GameObject {
     public boolean isOnGround() {
         return isOnGround;
     }
+
+    public float getVelocityX() {
+        return velocityX;
+    }
+
+    public float getVelocityY() {
+        return velocityY;
+    }
+
+    public int getContactNormalX() {
+        return contactNormalX;
+    }
+
+    public int getContactNormalY() {
+        return contactNormalY;
+    }
 }
\ No newline at end of file
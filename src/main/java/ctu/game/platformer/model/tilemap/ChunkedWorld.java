@@ -0,0 +1,396 @@
+package ctu.game.platformer.model.tilemap;
+
+import ctu.game.platformer.util.DevResources;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+
+/**
+ * A .tmap world too large to keep on the heap. The file is memory-mapped and
+ * tiles are copied out in CHUNK_SIZE x CHUNK_SIZE chunks: {@link #update}
+ * loads the chunks around the view and evicts the ones the camera left
+ * behind, and tile or object queries outside the resident set load what they
+ * touch on demand.
+ *
+ * Objects are created when their chunk loads and dropped when it is evicted,
+ * so per-object state doesn't survive leaving the area. Tile edits do: they
+ * are kept per chunk and laid over the file's tiles whenever it loads.
+ */
+public class ChunkedWorld {
+    public static final int CHUNK_SHIFT = 5;
+    public static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    // Chunks loaded ahead of the view, and kept before eviction (hysteresis)
+    private static final int LOAD_MARGIN = 1;
+    private static final int EVICT_MARGIN = 2;
+
+    /** Creates live objects from object table entries (type, x, y). */
+    public interface ObjectFactory {
+        MapObject create(int type, float x, float y);
+    }
+
+    /** Visits raw object table entries (type, x, y, layer). */
+    public interface ObjectEntryVisitor {
+        void visit(int type, float x, float y, int layer);
+    }
+
+    private static class Chunk {
+        // [layer][localY * CHUNK_SIZE + localX]
+        final byte[][] tiles;
+        // Solidity bits per layer, same indexing, upper layers include layer 0
+        final long[][] solid;
+        final List<List<MapObject>> layerObjects;
+
+        Chunk(int layerCount) {
+            tiles = new byte[layerCount][CHUNK_SIZE * CHUNK_SIZE];
+            solid = new long[layerCount][CHUNK_SIZE * CHUNK_SIZE / 64];
+            layerObjects = new ArrayList<>(layerCount);
+            for (int i = 0; i < layerCount; i++) {
+                layerObjects.add(new ArrayList<>());
+            }
+        }
+    }
+
+    private final String filename;
+    private final int width;
+    private final int height;
+    private final int layerCount;
+    private final int objectCount;
+    private final int tileSize;
+    private final int chunksX;
+    private final int chunksY;
+    private final ObjectFactory objectFactory;
+    private final IntPredicate solidTile;
+
+    // One mapping per layer so the whole file may exceed 2GB
+    private final MappedByteBuffer[] layerBuffers;
+    private final MappedByteBuffer objectTable;
+
+    // Object table indices grouped by chunk: chunk c owns
+    // chunkObjects[chunkObjectStart[c] .. chunkObjectStart[c + 1])
+    private final int[] chunkObjectStart;
+    private final int[] chunkObjects;
+
+    private final Map<Integer, Chunk> chunks = new HashMap<>();
+    // Edited tiles by chunk key, then layer * CHUNK_SIZE^2 + index in the chunk
+    private final Map<Integer, Map<Integer, Byte>> edits = new HashMap<>();
+    private int lastChunkKey = -1;
+    private Chunk lastChunk = null;
+
+    private long chunkLoads = 0;
+    private long chunkEvictions = 0;
+
+    private ChunkedWorld(String filename, MapLoader.TmapHeader header, int tileSize, ObjectFactory objectFactory,
+                         IntPredicate solidTile, MappedByteBuffer[] layerBuffers, MappedByteBuffer objectTable) {
+        this.filename = filename;
+        this.width = header.width;
+        this.height = header.height;
+        this.layerCount = header.layerCount;
+        this.objectCount = header.objectCount;
+        this.tileSize = tileSize;
+        this.objectFactory = objectFactory;
+        this.solidTile = solidTile;
+        this.layerBuffers = layerBuffers;
+        this.objectTable = objectTable;
+        this.chunksX = (width + CHUNK_MASK) >> CHUNK_SHIFT;
+        this.chunksY = (height + CHUNK_MASK) >> CHUNK_SHIFT;
+
+        // Bucket the object table by chunk (counting sort), so a chunk load
+        // only touches its own entries
+        chunkObjectStart = new int[chunksX * chunksY + 1];
+        chunkObjects = new int[objectCount];
+        for (int i = 0; i < objectCount; i++) {
+            chunkObjectStart[objectChunkKey(i) + 1]++;
+        }
+        for (int c = 0; c < chunksX * chunksY; c++) {
+            chunkObjectStart[c + 1] += chunkObjectStart[c];
+        }
+        int[] fill = new int[chunksX * chunksY];
+        for (int i = 0; i < objectCount; i++) {
+            int key = objectChunkKey(i);
+            chunkObjects[chunkObjectStart[key] + fill[key]++] = i;
+        }
+    }
+
+    /**
+     * Map a .tmap world from maps/. Returns null if there is no such file or
+     * its tile data is smaller than minTileBytes (cheaper to load whole).
+     */
+    public static ChunkedWorld open(String filename, int tileSize, ObjectFactory objectFactory,
+                                    IntPredicate solidTile, long minTileBytes) throws IOException {
+        // The header decides, so small maps are never copied out of a jar just to be read again
+        MapLoader.TmapHeader header;
+        try (InputStream is = DevResources.open("maps/" + filename)) {
+            if (is == null) {
+                return null;
+            }
+            byte[] bytes = is.readNBytes(MapLoader.TMAP_HEADER_BYTES);
+            if (bytes.length < MapLoader.TMAP_HEADER_BYTES) {
+                throw new IOException("Truncated tmap file: " + filename);
+            }
+            header = MapLoader.TmapHeader.read(filename, ByteBuffer.wrap(bytes));
+        }
+        if (header.tileBytes() < minTileBytes) {
+            return null;
+        }
+
+        Path file = DevResources.resolveFile("maps/" + filename);
+        if (file == null) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long objectBytes = (long) header.objectCount * MapLoader.TMAP_OBJECT_BYTES;
+            if (header.width == 0 || header.height == 0 || header.layerCount == 0) {
+                throw new IOException("Empty tmap world: " + filename);
+            }
+            if (header.layerBytes() > Integer.MAX_VALUE || objectBytes > Integer.MAX_VALUE) {
+                throw new IOException("Map layer or object table too large to map: " + filename);
+            }
+
+            if (header.objectTableOffset() + objectBytes > channel.size()) {
+                throw new IOException("Truncated tmap file: " + filename);
+            }
+
+            // Mappings stay valid after the channel is closed
+            MappedByteBuffer[] layers = new MappedByteBuffer[header.layerCount];
+            for (int layer = 0; layer < header.layerCount; layer++) {
+                layers[layer] = channel.map(FileChannel.MapMode.READ_ONLY,
+                        MapLoader.TMAP_HEADER_BYTES + layer * header.layerBytes(), header.layerBytes());
+            }
+            MappedByteBuffer objects = channel.map(FileChannel.MapMode.READ_ONLY,
+                    header.objectTableOffset(), objectBytes);
+            objects.order(ByteOrder.LITTLE_ENDIAN);
+
+            return new ChunkedWorld(filename, header, tileSize, objectFactory, solidTile, layers, objects);
+        }
+    }
+
+    private int objectChunkKey(int index) {
+        int base = index * MapLoader.TMAP_OBJECT_BYTES;
+        int tileX = (int) Math.floor(objectTable.getFloat(base + 4) / tileSize);
+        int tileY = (int) Math.floor(objectTable.getFloat(base + 8) / tileSize);
+        int cx = Math.max(0, Math.min(chunksX - 1, tileX >> CHUNK_SHIFT));
+        int cy = Math.max(0, Math.min(chunksY - 1, tileY >> CHUNK_SHIFT));
+        return cy * chunksX + cx;
+    }
+
+    /**
+     * Load the chunks covering the view plus a margin and evict those beyond
+     * the eviction margin. Coordinates are in pixels.
+     */
+    public void update(float viewX, float viewY, int viewWidth, int viewHeight) {
+        int minCx = pixelToChunk(viewX, chunksX);
+        int maxCx = pixelToChunk(viewX + viewWidth, chunksX);
+        int minCy = pixelToChunk(viewY, chunksY);
+        int maxCy = pixelToChunk(viewY + viewHeight, chunksY);
+
+        Iterator<Map.Entry<Integer, Chunk>> it = chunks.entrySet().iterator();
+        while (it.hasNext()) {
+            int key = it.next().getKey();
+            int cx = key % chunksX;
+            int cy = key / chunksX;
+            if (cx < minCx - EVICT_MARGIN || cx > maxCx + EVICT_MARGIN
+                    || cy < minCy - EVICT_MARGIN || cy > maxCy + EVICT_MARGIN) {
+                it.remove();
+                chunkEvictions++;
+                if (key == lastChunkKey) {
+                    lastChunkKey = -1;
+                    lastChunk = null;
+                }
+            }
+        }
+
+        for (int cy = Math.max(0, minCy - LOAD_MARGIN); cy <= Math.min(chunksY - 1, maxCy + LOAD_MARGIN); cy++) {
+            for (int cx = Math.max(0, minCx - LOAD_MARGIN); cx <= Math.min(chunksX - 1, maxCx + LOAD_MARGIN); cx++) {
+                chunk(cx, cy);
+            }
+        }
+    }
+
+    private int pixelToChunk(float pixel, int chunkCount) {
+        int tile = (int) Math.floor(pixel / tileSize);
+        return Math.max(0, Math.min(chunkCount - 1, tile >> CHUNK_SHIFT));
+    }
+
+    // Drop every resident chunk so they reload, e.g. after tile semantics changed
+    public void invalidateChunks() {
+        chunkEvictions += chunks.size();
+        chunks.clear();
+        lastChunkKey = -1;
+        lastChunk = null;
+    }
+
+    // Tile at map coordinates; the caller checks bounds
+    public int getTile(int layer, int x, int y) {
+        Chunk chunk = chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        return chunk.tiles[layer][((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK)] & 0xFF;
+    }
+
+    // Change a tile, in the resident chunk and for every later load of it; the caller checks bounds
+    public void setTile(int layer, int x, int y, int tile) {
+        int key = (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+        int index = ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+        edits.computeIfAbsent(key, k -> new HashMap<>()).put(layer * CHUNK_SIZE * CHUNK_SIZE + index, (byte) tile);
+
+        Chunk chunk = chunks.get(key);
+        if (chunk != null) {
+            chunk.tiles[layer][index] = (byte) tile;
+            refreshSolid(chunk, index);
+        }
+    }
+
+    // Recompute one cell's solidity bits on every layer
+    private void refreshSolid(Chunk chunk, int index) {
+        long bit = 1L << index;
+        boolean base = solidTile.test(chunk.tiles[0][index] & 0xFF);
+        for (int layer = 0; layer < layerCount; layer++) {
+            boolean solid = base || (layer > 0 && solidTile.test(chunk.tiles[layer][index] & 0xFF));
+            if (solid) {
+                chunk.solid[layer][index >>> 6] |= bit;
+            } else {
+                chunk.solid[layer][index >>> 6] &= ~bit;
+            }
+        }
+    }
+
+    // Whether a tile is solid on a layer, counting the base layer below it
+    public boolean isSolid(int layer, int x, int y) {
+        Chunk chunk = chunk(x >> CHUNK_SHIFT, y >> CHUNK_SHIFT);
+        int index = ((y & CHUNK_MASK) << CHUNK_SHIFT) | (x & CHUNK_MASK);
+        return (chunk.solid[layer][index >>> 6] & (1L << index)) != 0;
+    }
+
+    // Whether the tile's chunk is loaded, without loading it
+    public boolean isResident(int x, int y) {
+        int key = (y >> CHUNK_SHIFT) * chunksX + (x >> CHUNK_SHIFT);
+        return key == lastChunkKey || chunks.containsKey(key);
+    }
+
+    // Every entry of the object table, in file order; no chunk is loaded
+    public void forEachObjectEntry(ObjectEntryVisitor visitor) {
+        for (int i = 0; i < objectCount; i++) {
+            int base = i * MapLoader.TMAP_OBJECT_BYTES;
+            visitor.visit(objectTable.getInt(base), objectTable.getFloat(base + 4),
+                    objectTable.getFloat(base + 8), objectTable.getInt(base + 12));
+        }
+    }
+
+    /**
+     * Visit the objects of a layer whose top-left corner lies in the pixel
+     * rectangle, loading the chunks it covers.
+     */
+    public void forEachObject(int layer, float minX, float minY, float maxX, float maxY, Consumer<MapObject> action) {
+        if (layer < 0 || layer >= layerCount) return;
+
+        int minCx = pixelToChunk(minX, chunksX);
+        int maxCx = pixelToChunk(maxX, chunksX);
+        int minCy = pixelToChunk(minY, chunksY);
+        int maxCy = pixelToChunk(maxY, chunksY);
+
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                for (MapObject obj : chunk(cx, cy).layerObjects.get(layer)) {
+                    if (obj.getX() >= minX && obj.getX() <= maxX && obj.getY() >= minY && obj.getY() <= maxY) {
+                        action.accept(obj);
+                    }
+                }
+            }
+        }
+    }
+
+    private Chunk chunk(int cx, int cy) {
+        int key = cy * chunksX + cx;
+        if (key == lastChunkKey) {
+            return lastChunk;
+        }
+
+        Chunk chunk = chunks.get(key);
+        if (chunk == null) {
+            chunk = loadChunk(cx, cy);
+            chunks.put(key, chunk);
+        }
+        lastChunkKey = key;
+        lastChunk = chunk;
+        return chunk;
+    }
+
+    private Chunk loadChunk(int cx, int cy) {
+        Chunk chunk = new Chunk(layerCount);
+        int x0 = cx << CHUNK_SHIFT;
+        int y0 = cy << CHUNK_SHIFT;
+        int columns = Math.min(CHUNK_SIZE, width - x0);
+        int rows = Math.min(CHUNK_SIZE, height - y0);
+
+        for (int layer = 0; layer < layerCount; layer++) {
+            MappedByteBuffer source = layerBuffers[layer];
+            byte[] target = chunk.tiles[layer];
+            for (int row = 0; row < rows; row++) {
+                source.get((y0 + row) * width + x0, target, row << CHUNK_SHIFT, columns);
+            }
+        }
+
+        // Tiles edited since the world was opened
+        int key = cy * chunksX + cx;
+        Map<Integer, Byte> chunkEdits = edits.get(key);
+        if (chunkEdits != null) {
+            for (Map.Entry<Integer, Byte> edit : chunkEdits.entrySet()) {
+                int cell = edit.getKey();
+                chunk.tiles[cell >> (2 * CHUNK_SHIFT)][cell & (CHUNK_SIZE * CHUNK_SIZE - 1)] = edit.getValue();
+            }
+        }
+
+        for (int layer = 0; layer < layerCount; layer++) {
+            byte[] target = chunk.tiles[layer];
+
+            long[] bits = chunk.solid[layer];
+            for (int i = 0; i < target.length; i++) {
+                if (solidTile.test(target[i] & 0xFF)) {
+                    bits[i >>> 6] |= 1L << i;
+                }
+            }
+            if (layer > 0) {
+                long[] base = chunk.solid[0];
+                for (int w = 0; w < bits.length; w++) {
+                    bits[w] |= base[w];
+                }
+            }
+        }
+
+        for (int i = chunkObjectStart[key]; i < chunkObjectStart[key + 1]; i++) {
+            int base = chunkObjects[i] * MapLoader.TMAP_OBJECT_BYTES;
+            MapObject obj = objectFactory.create(objectTable.getInt(base),
+                    objectTable.getFloat(base + 4), objectTable.getFloat(base + 8));
+            if (obj != null) {
+                int objLayer = objectTable.getInt(base + 12);
+                chunk.layerObjects.get(objLayer >= 0 && objLayer < layerCount ? objLayer : 0).add(obj);
+            }
+        }
+
+        chunkLoads++;
+        return chunk;
+    }
+
+    public String getFilename() { return filename; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getLayerCount() { return layerCount; }
+    public int getObjectCount() { return objectCount; }
+    public int getResidentChunkCount() { return chunks.size(); }
+    public long getChunkLoads() { return chunkLoads; }
+    public long getChunkEvictions() { return chunkEvictions; }
+}
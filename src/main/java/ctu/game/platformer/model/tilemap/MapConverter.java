@@ -0,0 +1,121 @@
+package ctu.game.platformer.model.tilemap;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Converts CSV maps to the binary .tmap format read by {@link MapLoader}.
+ * Run by the build over the packaged maps, or by hand:
+ *
+ *   MapConverter <map.csv | directory>... [--out <directory>]
+ *
+ * Without --out each .tmap is written next to its CSV.
+ */
+public class MapConverter {
+
+    public static void main(String[] args) throws IOException {
+        List<Path> inputs = new ArrayList<>();
+        Path outDir = null;
+
+        for (int i = 0; i < args.length; i++) {
+            if ("--out".equals(args[i]) && i + 1 < args.length) {
+                outDir = Paths.get(args[++i]);
+            } else {
+                inputs.add(Paths.get(args[i]));
+            }
+        }
+
+        if (inputs.isEmpty()) {
+            System.err.println("Usage: MapConverter <map.csv | directory>... [--out <directory>]");
+            System.exit(1);
+        }
+
+        for (Path input : inputs) {
+            if (Files.isDirectory(input)) {
+                try (Stream<Path> files = Files.list(input)) {
+                    for (Path csv : (Iterable<Path>) files.sorted()::iterator) {
+                        if (csv.getFileName().toString().toLowerCase().endsWith(MapLoader.CSV_EXTENSION)) {
+                            convert(csv, outDir);
+                        }
+                    }
+                }
+            } else {
+                convert(input, outDir);
+            }
+        }
+    }
+
+    public static Path convert(Path csv, Path outDir) throws IOException {
+        String name = csv.getFileName().toString();
+        String binaryName = MapLoader.binaryName(name);
+        if (binaryName == null) {
+            throw new IOException("Not a CSV map: " + csv);
+        }
+
+        MapData data;
+        try (InputStream is = Files.newInputStream(csv)) {
+            data = MapLoader.readCsv(name, is);
+        } catch (IOException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException("Failed to parse " + csv + ": " + e.getMessage(), e);
+        }
+
+        Path dir = outDir != null ? outDir : csv.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path target = dir.resolve(binaryName);
+        write(data, target);
+
+        System.out.println("Converted " + csv + " -> " + target + " (" + Files.size(target) + " bytes)");
+        return target;
+    }
+
+    public static void write(MapData data, Path target) throws IOException {
+        int width = data.getWidth();
+        int height = data.getHeight();
+        int layerCount = data.getLayerCount();
+        int objectCount = data.getObjectCount();
+
+        ByteBuffer header = ByteBuffer.allocate(MapLoader.TMAP_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MapLoader.TMAP_MAGIC)
+                .putShort(MapLoader.TMAP_VERSION)
+                .putShort((short) 0)
+                .putInt(width)
+                .putInt(height)
+                .putInt(layerCount)
+                .putInt(objectCount)
+                .flip();
+
+        ByteBuffer objects = ByteBuffer.allocate(objectCount * MapLoader.TMAP_OBJECT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < objectCount; i++) {
+            objects.putInt(data.getObjectType(i))
+                    .putFloat(data.getObjectX(i))
+                    .putFloat(data.getObjectY(i))
+                    .putInt(data.getObjectLayer(i));
+        }
+        objects.flip();
+
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            writeFully(channel, ByteBuffer.wrap(data.getTiles()));
+            writeFully(channel, objects);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package ctu.game.platformer.model.tilemap;
+
+/**
+ * Parsed contents of a map file: tile layers plus the raw object table.
+ * Produced by {@link MapLoader}, possibly on a background thread, and
+ * turned into live tiles and MapObjects by {@link TileMap}.
+ *
+ * Tiles are one flat array, layer by layer and row by row, the same order
+ * as the .tmap body: index (layer * height + y) * width + x.
+ */
+public class MapData {
+    private final String filename;
+    private final int width;
+    private final int height;
+    private final int layerCount;
+    private final byte[] tiles;
+
+    // Object table (type, position, layer), one entry per index
+    private final int[] objectTypes;
+    private final float[] objectX;
+    private final float[] objectY;
+    private final int[] objectLayers;
+
+    public MapData(String filename, int width, int height, int layerCount, byte[] tiles,
+                   int[] objectTypes, float[] objectX, float[] objectY, int[] objectLayers) {
+        this.filename = filename;
+        this.width = width;
+        this.height = height;
+        this.layerCount = layerCount;
+        this.tiles = tiles;
+        this.objectTypes = objectTypes;
+        this.objectX = objectX;
+        this.objectY = objectY;
+        this.objectLayers = objectLayers;
+    }
+
+    public String getFilename() { return filename; }
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getLayerCount() { return layerCount; }
+    public byte[] getTiles() { return tiles; }
+
+    public int getTile(int layer, int x, int y) {
+        return tiles[(layer * height + y) * width + x] & 0xFF;
+    }
+
+    public int getObjectCount() { return objectTypes.length; }
+    public int getObjectType(int index) { return objectTypes[index]; }
+    public float getObjectX(int index) { return objectX[index]; }
+    public float getObjectY(int index) { return objectY[index]; }
+    public int getObjectLayer(int index) { return objectLayers[index]; }
+
+    /**
+     * Copy for a map that will be played on, so the cached original stays
+     * pristine. Tiles are copied; the object table is never modified after
+     * parsing and is shared.
+     */
+    public MapData copy() {
+        return new MapData(filename, width, height, layerCount, tiles.clone(),
+                objectTypes, objectX, objectY, objectLayers);
+    }
+
+    // Rough heap footprint, used for prefetch and cache budgeting
+    public long getSizeInBytes() {
+        return (long) layerCount * width * height + objectTypes.length * 16L;
+    }
+}
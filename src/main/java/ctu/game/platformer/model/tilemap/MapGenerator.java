@@ -0,0 +1,331 @@
+package ctu.game.platformer.model.tilemap;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Seeded generator for large maps to benchmark and stress test with. The same
+ * settings always produce the same map:
+ *
+ *   MapGenerator [--width 10000] [--height 10000] [--layers 2] [--seed 1]
+ *                [--objects-per-1000 2] [--portals 16] [--format csv|tmap|both]
+ *                [--out <directory>] [--name generated]
+ *
+ * Layer 0 is walled terrain following a random-walk ground line, with grass
+ * on top and floating platforms above it. Higher layers only hold platforms.
+ * Objects are enemies standing on the ground, plus portal pairs: a layer
+ * portal on layer 0 and a return a few tiles further on layer 1.
+ *
+ * Files are written a row at a time, so a 10,000x10,000 map never has to fit
+ * in memory; {@link #generate} builds a MapData for sizes that do.
+ */
+public class MapGenerator {
+    private static final int TILE_SIZE = TileMap.TILE_SIZE;
+    private static final byte WALL = 1;
+    private static final byte GRASS = 2;
+    private static final byte DIRT = 3;
+    private static final int OBJECT_ENEMY = 2;
+    private static final int OBJECT_PORTAL = 3;
+    private static final int OBJECT_RETURN = 4;
+
+    // Platforms are placed one per block at most
+    private static final int BLOCK_WIDTH = 16;
+    private static final int BLOCK_HEIGHT = 6;
+
+    public static class Settings {
+        public int width = 256;
+        public int height = 128;
+        public int layers = 2;
+        public long seed = 1;
+        public float objectsPer1000Tiles = 2;
+        public int portals = 4;
+
+        public Settings size(int width, int height) {
+            this.width = width;
+            this.height = height;
+            return this;
+        }
+
+        public Settings layers(int layers) {
+            this.layers = layers;
+            return this;
+        }
+
+        public Settings seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        public Settings objectDensity(float objectsPer1000Tiles) {
+            this.objectsPer1000Tiles = objectsPer1000Tiles;
+            return this;
+        }
+
+        public Settings portals(int portals) {
+            this.portals = portals;
+            return this;
+        }
+    }
+
+    private final Settings settings;
+    private final int[] ground;
+
+    // Object table, SoA like MapData
+    private final int[] objectTypes;
+    private final float[] objectX;
+    private final float[] objectY;
+    private final int[] objectLayers;
+
+    public MapGenerator(Settings settings) {
+        if (settings.width < 8 || settings.height < 8 || settings.layers < 1) {
+            throw new IllegalArgumentException("Map must be at least 8x8 with one layer");
+        }
+        this.settings = settings;
+        this.ground = buildGround();
+
+        Random random = new Random(settings.seed ^ 0x5DEECE66DL);
+        int portalPairs = settings.layers > 1 ? settings.portals : 0;
+        int enemies = (int) ((long) settings.width * settings.height * settings.objectsPer1000Tiles / 1000);
+        int count = enemies + portalPairs * 2;
+
+        objectTypes = new int[count];
+        objectX = new float[count];
+        objectY = new float[count];
+        objectLayers = new int[count];
+
+        int i = 0;
+        for (int n = 0; n < enemies; n++, i++) {
+            int x = 1 + random.nextInt(settings.width - 2);
+            setObject(i, OBJECT_ENEMY, x, ground[x] - 1, 0);
+        }
+        for (int n = 0; n < portalPairs; n++) {
+            int x = 1 + random.nextInt(settings.width - 6);
+            setObject(i++, OBJECT_PORTAL, x, ground[x] - 1, 0);
+            setObject(i++, OBJECT_RETURN, x + 4, ground[x + 4] - 1, 1);
+        }
+    }
+
+    private void setObject(int i, int type, int tileX, int tileY, int layer) {
+        objectTypes[i] = type;
+        objectX[i] = tileX * TILE_SIZE;
+        objectY[i] = tileY * TILE_SIZE;
+        objectLayers[i] = layer;
+    }
+
+    // Ground row per column: a random walk between a third and the bottom of the map
+    private int[] buildGround() {
+        Random random = new Random(settings.seed);
+        int[] rows = new int[settings.width];
+        int min = settings.height / 3;
+        int max = settings.height - 3;
+        int row = settings.height * 3 / 4;
+
+        for (int x = 0; x < settings.width; x++) {
+            if (random.nextInt(4) == 0) {
+                row = Math.max(min, Math.min(max, row + random.nextInt(3) - 1));
+            }
+            rows[x] = row;
+        }
+        return rows;
+    }
+
+    // A spot above the ground near the left edge, in pixels
+    public float[] getSpawn() {
+        int x = Math.min(2, settings.width - 2);
+        return new float[] { x * TILE_SIZE, (ground[x] - 2) * TILE_SIZE };
+    }
+
+    public void fillRow(int layer, int y, byte[] row) {
+        int width = settings.width;
+        Arrays.fill(row, 0, width, (byte) 0);
+
+        if (layer == 0) {
+            for (int x = 0; x < width; x++) {
+                if (x == 0 || x == width - 1 || y == 0 || y == settings.height - 1) {
+                    row[x] = WALL;
+                } else if (y > ground[x]) {
+                    row[x] = DIRT; // Enclosed below the surface, never reached
+                } else if (y == ground[x]) {
+                    row[x] = WALL;
+                } else if (y == ground[x] - 1) {
+                    row[x] = GRASS;
+                }
+            }
+        }
+
+        // Platforms: at most one per block, on a row of that block, clear of the ground
+        if (y % BLOCK_HEIGHT != 0 || y < 2) return;
+        int by = y / BLOCK_HEIGHT;
+        for (int bx = 0; bx * BLOCK_WIDTH < width; bx++) {
+            long hash = mix(settings.seed, layer, bx, by);
+            if ((hash & 3) != 0) continue;
+
+            int length = 3 + (int) ((hash >>> 2) % 6);
+            int start = bx * BLOCK_WIDTH + (int) ((hash >>> 8) % (BLOCK_WIDTH - length));
+            for (int x = Math.max(1, start); x < Math.min(width - 1, start + length); x++) {
+                if (y < ground[x] - 3) {
+                    row[x] = WALL;
+                }
+            }
+        }
+    }
+
+    private static long mix(long seed, int layer, int bx, int by) {
+        long h = seed * 0x9E3779B97F4A7C15L + layer * 0xC2B2AE3D27D4EB4FL + bx * 0x165667B19E3779F9L + by;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h & Long.MAX_VALUE;
+    }
+
+    public MapData generate(String filename) {
+        long size = (long) settings.layers * settings.width * settings.height;
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Map too large to hold in memory, write it to a file instead");
+        }
+
+        byte[] tiles = new byte[(int) size];
+        byte[] row = new byte[settings.width];
+        for (int layer = 0; layer < settings.layers; layer++) {
+            for (int y = 0; y < settings.height; y++) {
+                fillRow(layer, y, row);
+                System.arraycopy(row, 0, tiles, (layer * settings.height + y) * settings.width, settings.width);
+            }
+        }
+        return new MapData(filename, settings.width, settings.height, settings.layers, tiles,
+                objectTypes.clone(), objectX.clone(), objectY.clone(), objectLayers.clone());
+    }
+
+    // Same layout MapLoader.readCsv reads
+    public void writeCsv(Path target) throws IOException {
+        byte[] row = new byte[settings.width];
+        try (BufferedWriter out = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            out.write(settings.width + "," + settings.height + "," + settings.layers);
+            out.newLine();
+
+            StringBuilder line = new StringBuilder(settings.width * 2);
+            for (int layer = 0; layer < settings.layers; layer++) {
+                if (layer > 0) {
+                    out.newLine();
+                }
+                for (int y = 0; y < settings.height; y++) {
+                    fillRow(layer, y, row);
+                    line.setLength(0);
+                    for (int x = 0; x < settings.width; x++) {
+                        if (x > 0) line.append(',');
+                        line.append(row[x]);
+                    }
+                    out.append(line);
+                    out.newLine();
+                }
+            }
+
+            out.newLine();
+            for (int i = 0; i < objectTypes.length; i++) {
+                out.write(objectTypes[i] + "," + (int) objectX[i] + "," + (int) objectY[i] + "," + objectLayers[i]);
+                out.newLine();
+            }
+        }
+    }
+
+    // Same layout MapConverter.write produces
+    public void writeTmap(Path target) throws IOException {
+        int objectCount = objectTypes.length;
+        ByteBuffer header = ByteBuffer.allocate(MapLoader.TMAP_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MapLoader.TMAP_MAGIC)
+                .putShort(MapLoader.TMAP_VERSION)
+                .putShort((short) 0)
+                .putInt(settings.width)
+                .putInt(settings.height)
+                .putInt(settings.layers)
+                .putInt(objectCount)
+                .flip();
+
+        ByteBuffer objects = ByteBuffer.allocate(objectCount * MapLoader.TMAP_OBJECT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < objectCount; i++) {
+            objects.putInt(objectTypes[i]).putFloat(objectX[i]).putFloat(objectY[i]).putInt(objectLayers[i]);
+        }
+        objects.flip();
+
+        byte[] row = new byte[settings.width];
+        ByteBuffer rowBuffer = ByteBuffer.wrap(row);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header);
+            for (int layer = 0; layer < settings.layers; layer++) {
+                for (int y = 0; y < settings.height; y++) {
+                    fillRow(layer, y, row);
+                    rowBuffer.clear();
+                    writeFully(channel, rowBuffer);
+                }
+            }
+            writeFully(channel, objects);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    public int getObjectCount() {
+        return objectTypes.length;
+    }
+
+    public static void main(String[] args) throws IOException {
+        Settings settings = new Settings().size(10_000, 10_000).portals(16);
+        String format = "both";
+        Path outDir = Paths.get(".");
+        String name = "generated";
+
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--width" -> settings.width = Integer.parseInt(value);
+                case "--height" -> settings.height = Integer.parseInt(value);
+                case "--layers" -> settings.layers = Integer.parseInt(value);
+                case "--seed" -> settings.seed = Long.parseLong(value);
+                case "--objects-per-1000" -> settings.objectsPer1000Tiles = Float.parseFloat(value);
+                case "--portals" -> settings.portals = Integer.parseInt(value);
+                case "--format" -> format = value;
+                case "--out" -> outDir = Paths.get(value);
+                case "--name" -> name = value;
+                default -> {
+                    System.err.println("Unknown option " + args[i]);
+                    System.exit(1);
+                }
+            }
+        }
+
+        long start = System.nanoTime();
+        MapGenerator generator = new MapGenerator(settings);
+        Files.createDirectories(outDir);
+
+        if (!format.equals("tmap")) {
+            Path csv = outDir.resolve(name + MapLoader.CSV_EXTENSION);
+            generator.writeCsv(csv);
+            System.out.println("Generated " + csv + " (" + Files.size(csv) + " bytes)");
+        }
+        if (!format.equals("csv")) {
+            Path tmap = outDir.resolve(name + MapLoader.TMAP_EXTENSION);
+            generator.writeTmap(tmap);
+            System.out.println("Generated " + tmap + " (" + Files.size(tmap) + " bytes)");
+        }
+        System.out.println(settings.width + "x" + settings.height + ", " + settings.layers + " layers, " +
+                generator.getObjectCount() + " objects, seed " + settings.seed + " in " +
+                (System.nanoTime() - start) / 1_000_000 + "ms");
+    }
+}
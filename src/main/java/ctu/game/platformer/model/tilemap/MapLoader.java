@@ -0,0 +1,462 @@
+package ctu.game.platformer.model.tilemap;
+
+import ctu.game.platformer.util.DevResources;
+import ctu.game.platformer.util.StartupTracer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Reads map files from maps/ into {@link MapData}. Parsing has no OpenGL
+ * dependency, so maps can be prefetched on worker threads and picked up by
+ * the next {@link #load(String)}.
+ *
+ * Two formats are understood: the hand-edited CSV and the binary .tmap
+ * written by {@link MapConverter}. A .tmap is a little-endian header
+ * (magic, version, width, height, layer count, object count), the raw
+ * layer bytes row by row, then 16 bytes per object (type, x, y, layer).
+ * The build converts every CSV, and a request for "level1.csv" is served
+ * from "level1.tmap" when it exists, except in dev mode where the edited
+ * CSV in the source tree wins.
+ *
+ * Parsed maps are kept in an LRU cache bounded by cacheBudgetBytes, keyed
+ * by filename and checked against the CRC32 of the file they came from.
+ * Finished prefetches go into the same cache, so they count against the
+ * budget like any loaded map.
+ * Every load hands out a copy of the cached tiles, so revisiting a level is
+ * an array copy instead of a parse. In dev mode the file is re-hashed on
+ * each load so edits are never served stale.
+ */
+public class MapLoader {
+    static final int TMAP_MAGIC = 0x50414D54; // "TMAP" read as a little-endian int
+    static final short TMAP_VERSION = 1;
+    static final int TMAP_HEADER_BYTES = 24;
+    static final int TMAP_OBJECT_BYTES = 16;
+    static final String CSV_EXTENSION = ".csv";
+    static final String TMAP_EXTENSION = ".tmap";
+
+    // Prefetches still parsing; finished ones move into the cache
+    private static final LinkedHashMap<String, CompletableFuture<ParsedMap>> prefetched = new LinkedHashMap<>();
+
+    // A parsed map and the file it came from
+    private static class ParsedMap {
+        final MapData data;
+        final String file;
+        final long contentHash;
+
+        ParsedMap(MapData data, String file, long contentHash) {
+            this.data = data;
+            this.file = file;
+            this.contentHash = contentHash;
+        }
+    }
+
+    // Parsed maps, least recently used first
+    private static final LinkedHashMap<String, ParsedMap> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private static long cacheBudgetBytes = 32L * 1024 * 1024;
+    private static long cachedBytes = 0;
+    private static long cacheHits = 0;
+    private static long cacheMisses = 0;
+
+    /**
+     * Load a map from the cache, a prefetch that was started, or the file,
+     * in that order. The result is the caller's own copy. Returns null if the
+     * map can't be read.
+     */
+    public static MapData load(String filename) {
+        ParsedMap cached;
+        synchronized (cache) {
+            cached = cache.get(filename);
+        }
+        if (cached != null && isCurrent(cached)) {
+            synchronized (cache) {
+                cacheHits++;
+            }
+            return cached.data.copy();
+        }
+
+        CompletableFuture<ParsedMap> pending;
+        synchronized (prefetched) {
+            pending = prefetched.remove(filename);
+        }
+
+        // Already parsed or in progress, waiting beats parsing it again
+        ParsedMap parsed = pending != null ? pending.join() : null;
+        if (parsed == null) {
+            parsed = parseEntry(filename);
+        }
+        if (parsed == null) {
+            return null;
+        }
+
+        synchronized (cache) {
+            cacheMisses++;
+        }
+        cachePut(filename, parsed);
+        return parsed.data.copy();
+    }
+
+    // Packaged resources don't change; in dev mode compare against the file
+    private static boolean isCurrent(ParsedMap parsed) {
+        if (DevResources.getOverrideRoot() == null) {
+            return true;
+        }
+        try (InputStream is = DevResources.open("maps/" + parsed.file)) {
+            return is != null && hash(is) == parsed.contentHash;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static long hash(InputStream is) throws IOException {
+        CheckedInputStream checked = new CheckedInputStream(is, new CRC32());
+        checked.transferTo(OutputStream.nullOutputStream());
+        return checked.getChecksum().getValue();
+    }
+
+    private static void cachePut(String filename, ParsedMap parsed) {
+        long size = parsed.data.getSizeInBytes();
+
+        synchronized (cache) {
+            ParsedMap previous = cache.remove(filename);
+            if (previous != null) {
+                cachedBytes -= previous.data.getSizeInBytes();
+            }
+            if (size > cacheBudgetBytes) {
+                return; // Would evict everything else for a single map
+            }
+
+            cache.put(filename, parsed);
+            cachedBytes += size;
+            evictToBudget();
+        }
+    }
+
+    private static void evictToBudget() {
+        Iterator<ParsedMap> it = cache.values().iterator();
+        while (cachedBytes > cacheBudgetBytes && it.hasNext()) {
+            cachedBytes -= it.next().data.getSizeInBytes();
+            it.remove();
+        }
+    }
+
+    public static void setCacheBudgetBytes(long budget) {
+        synchronized (cache) {
+            cacheBudgetBytes = budget;
+            evictToBudget();
+        }
+    }
+
+    public static String getCacheStatsSummary() {
+        synchronized (cache) {
+            return String.format("%d maps, %.1f/%.1f MB, %d hits, %d misses",
+                    cache.size(), cachedBytes / (1024.0 * 1024.0), cacheBudgetBytes / (1024.0 * 1024.0),
+                    cacheHits, cacheMisses);
+        }
+    }
+
+    // Start parsing a map in the background if it isn't already
+    public static void prefetch(String filename, Executor executor) {
+        if (filename == null) return;
+
+        synchronized (cache) {
+            if (cache.containsKey(filename)) return;
+        }
+
+        CompletableFuture<ParsedMap> pending;
+        synchronized (prefetched) {
+            if (prefetched.containsKey(filename)) return;
+
+            pending = CompletableFuture.supplyAsync(() -> parseEntry(filename), executor);
+            prefetched.put(filename, pending);
+        }
+
+        // Hand the result to the cache, whose budget decides whether it stays. Skipped
+        // if a load already took it over or the map was invalidated meanwhile
+        pending.thenAccept(parsed -> {
+            boolean unclaimed;
+            synchronized (prefetched) {
+                unclaimed = prefetched.remove(filename, pending);
+            }
+            if (unclaimed && parsed != null) {
+                cachePut(filename, parsed);
+            }
+        });
+    }
+
+    // Drop parsed copies that no longer match the file on disk
+    public static void invalidate(String filename) {
+        synchronized (prefetched) {
+            prefetched.remove(filename);
+        }
+        synchronized (cache) {
+            ParsedMap cached = cache.remove(filename);
+            if (cached != null) {
+                cachedBytes -= cached.data.getSizeInBytes();
+            }
+        }
+    }
+
+    // Parsing in the background or already in the cache
+    public static boolean isPrefetched(String filename) {
+        synchronized (prefetched) {
+            if (prefetched.containsKey(filename)) return true;
+        }
+        synchronized (cache) {
+            return cache.containsKey(filename);
+        }
+    }
+
+    // Parse a map straight from its file, bypassing the cache
+    public static MapData parse(String filename) {
+        ParsedMap parsed = parseEntry(filename);
+        return parsed != null ? parsed.data : null;
+    }
+
+    private static ParsedMap parseEntry(String filename) {
+        String binary = binaryFileFor(filename);
+        if (binary != null && !binary.equals(filename)) {
+            ParsedMap parsed = parseFile(filename, binary);
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        return parseFile(filename, filename);
+    }
+
+    /**
+     * The .tmap file to read for a map request: the file itself if it is a
+     * .tmap, the compiled sibling of a CSV outside dev mode, otherwise null.
+     */
+    static String binaryFileFor(String filename) {
+        if (filename.toLowerCase().endsWith(TMAP_EXTENSION)) return filename;
+        if (DevResources.getOverrideRoot() != null) return null;
+        return binaryName(filename);
+    }
+
+    // Compiled sibling of a CSV map, or null if the name isn't a CSV
+    static String binaryName(String filename) {
+        if (!filename.toLowerCase().endsWith(CSV_EXTENSION)) return null;
+        return filename.substring(0, filename.length() - CSV_EXTENSION.length()) + TMAP_EXTENSION;
+    }
+
+    // Read maps/<file>, reporting the result under the requested filename
+    @SuppressWarnings("try")
+    private static ParsedMap parseFile(String filename, String file) {
+        try (StartupTracer.Span ignored = StartupTracer.begin("parse map " + file, "asset");
+             InputStream is = DevResources.open("maps/" + file)) {
+            if (is == null) {
+                // A missing compiled map just means falling back to the CSV
+                if (file.equals(filename)) {
+                    System.err.println("Error loading map: maps/" + file + " not found");
+                }
+                return null;
+            }
+
+            // Hash the bytes as they are parsed, including anything left unread
+            CheckedInputStream checked = new CheckedInputStream(is, new CRC32());
+            MapData data = file.toLowerCase().endsWith(TMAP_EXTENSION)
+                    ? readBinary(filename, Channels.newChannel(checked))
+                    : readCsv(filename, checked);
+            checked.transferTo(OutputStream.nullOutputStream());
+            return new ParsedMap(data, file, checked.getChecksum().getValue());
+        } catch (Exception e) {
+            System.err.println("Error loading map " + file + ": " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    // Validated header of a .tmap file
+    static class TmapHeader {
+        final int width;
+        final int height;
+        final int layerCount;
+        final int objectCount;
+
+        private TmapHeader(int width, int height, int layerCount, int objectCount) {
+            this.width = width;
+            this.height = height;
+            this.layerCount = layerCount;
+            this.objectCount = objectCount;
+        }
+
+        long layerBytes() {
+            return (long) width * height;
+        }
+
+        long tileBytes() {
+            return layerBytes() * layerCount;
+        }
+
+        long objectTableOffset() {
+            return TMAP_HEADER_BYTES + tileBytes();
+        }
+
+        static TmapHeader read(String filename, ByteBuffer header) throws IOException {
+            header.order(ByteOrder.LITTLE_ENDIAN);
+            if (header.getInt() != TMAP_MAGIC) {
+                throw new IOException("Not a tmap file: " + filename);
+            }
+            short version = header.getShort();
+            if (version != TMAP_VERSION) {
+                throw new IOException("Unsupported tmap version " + version + " in " + filename);
+            }
+            header.getShort(); // flags, unused in version 1
+
+            int width = header.getInt();
+            int height = header.getInt();
+            int layerCount = header.getInt();
+            int objectCount = header.getInt();
+            if (width < 0 || height < 0 || layerCount < 0 || objectCount < 0) {
+                throw new IOException("Corrupt tmap header in " + filename);
+            }
+            return new TmapHeader(width, height, layerCount, objectCount);
+        }
+    }
+
+    // Parse a map file outside the resource tree, for build tools
+    public static MapData readFile(Path file) throws Exception {
+        String name = file.getFileName().toString();
+        try (InputStream is = Files.newInputStream(file)) {
+            if (name.toLowerCase().endsWith(TMAP_EXTENSION)) {
+                return readBinary(name, Channels.newChannel(is));
+            }
+            return readCsv(name, is);
+        }
+    }
+
+    static MapData readBinary(String filename, ReadableByteChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(TMAP_HEADER_BYTES);
+        readFully(channel, header);
+        header.flip();
+
+        TmapHeader tmap = TmapHeader.read(filename, header);
+        int width = tmap.width;
+        int height = tmap.height;
+        int layerCount = tmap.layerCount;
+        int objectCount = tmap.objectCount;
+
+        if (tmap.tileBytes() > Integer.MAX_VALUE || (long) objectCount * TMAP_OBJECT_BYTES > Integer.MAX_VALUE) {
+            throw new IOException("Map too large to load whole, stream it instead: " + filename);
+        }
+
+        // The tile block has the in-memory layout, read it straight into the array
+        byte[] tiles = new byte[(int) tmap.tileBytes()];
+        readFully(channel, ByteBuffer.wrap(tiles));
+
+        ByteBuffer body = ByteBuffer.allocate(objectCount * TMAP_OBJECT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(channel, body);
+        body.flip();
+
+        int[] types = new int[objectCount];
+        float[] xs = new float[objectCount];
+        float[] ys = new float[objectCount];
+        int[] objLayers = new int[objectCount];
+        for (int i = 0; i < objectCount; i++) {
+            types[i] = body.getInt();
+            xs[i] = body.getFloat();
+            ys[i] = body.getFloat();
+            objLayers[i] = body.getInt();
+        }
+
+        return new MapData(filename, width, height, layerCount, tiles, types, xs, ys, objLayers);
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of tmap file");
+            }
+        }
+    }
+
+    static MapData readCsv(String filename, InputStream is) throws Exception {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is));
+
+        // Parse map dimensions and layer information
+        String[] dimensions = reader.readLine().split(",");
+        int width = Integer.parseInt(dimensions[0]);
+        int height = Integer.parseInt(dimensions[1]);
+        int layerCount = Integer.parseInt(dimensions[2]);
+
+        // Read layer tile data; lineNumber is the file line, for errors
+        byte[] tiles = new byte[layerCount * height * width];
+        int lineNumber = 1;
+        for (int layer = 0; layer < layerCount; layer++) {
+            for (int y = 0; y < height; y++) {
+                String line = reader.readLine();
+                if (line == null) break;
+                lineNumber++;
+
+                String[] row = line.split(",");
+                int rowStart = (layer * height + y) * width;
+                for (int x = 0; x < Math.min(width, row.length); x++) {
+                    int tile = Integer.parseInt(row[x].trim());
+                    // Tiles are stored as unsigned bytes
+                    if (tile < 0 || tile > 255) {
+                        throw new IOException("Tile id " + tile + " out of range 0-255 in " + filename +
+                                " at line " + lineNumber + " (layer " + layer + ", row " + y + ", column " + x + ")");
+                    }
+                    tiles[rowStart + x] = (byte) tile;
+                }
+            }
+
+            // Skip empty line between layers if not the last layer
+            if (layer < layerCount - 1) {
+                reader.readLine();
+                lineNumber++;
+            }
+        }
+
+        // Read object data: Type, X, Y, Layer
+        List<float[]> rows = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty()) continue;
+
+            String[] parts = line.split(",");
+            if (parts.length >= 4) {
+                rows.add(new float[] {
+                        Integer.parseInt(parts[0]),
+                        Float.parseFloat(parts[1]),
+                        Float.parseFloat(parts[2]),
+                        Integer.parseInt(parts[3])
+                });
+            }
+        }
+
+        int count = rows.size();
+        int[] types = new int[count];
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        int[] objLayers = new int[count];
+        for (int i = 0; i < count; i++) {
+            float[] row = rows.get(i);
+            types[i] = (int) row[0];
+            xs[i] = row[1];
+            ys[i] = row[2];
+            objLayers[i] = (int) row[3];
+        }
+
+        return new MapData(filename, width, height, layerCount, tiles, types, xs, ys, objLayers);
+    }
+}
@@ -8,6 +8,8 @@ public class MapObject {
     private String type;
     private String mapFilename;
     private int targetLayer = -1; // For layer portal objects
+    private int cooldownTicks = 0; // Ticks after an enter event before the next one
+    private ObjectGrid grid; // Kept in sync with the position
 
     public MapObject(float x, float y, float width, float height, String type, String mapFilename) {
         this.x = x;
@@ -25,11 +27,21 @@ public class MapObject {
     }
 
     public void setX(float x) {
-        this.x = x;
+        setPosition(x, y);
     }
 
     public void setY(float y) {
+        setPosition(x, y);
+    }
+
+    public void setPosition(float x, float y) {
+        float oldX = this.x;
+        float oldY = this.y;
+        this.x = x;
         this.y = y;
+        if (grid != null) {
+            grid.moved(this, oldX, oldY);
+        }
     }
 
     public void setWidth(float width) {
@@ -57,4 +69,9 @@ public class MapObject {
     public String getMapFilename() { return mapFilename; }
     public int getTargetLayer() { return targetLayer; }
     public void setTargetLayer(int targetLayer) { this.targetLayer = targetLayer; }
+    public int getCooldownTicks() { return cooldownTicks; }
+    public void setCooldownTicks(int cooldownTicks) { this.cooldownTicks = cooldownTicks; }
+
+    ObjectGrid getGrid() { return grid; }
+    void setGrid(ObjectGrid grid) { this.grid = grid; }
 }
\ No newline at end of file
@@ -0,0 +1,165 @@
+package ctu.game.platformer.model.tilemap;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Uniform spatial hash of one layer's map objects, bucketed by the tile cell
+ * of their top-left corner. Area queries only visit the cells under the
+ * area, so their cost follows how many objects are nearby rather than how
+ * many the layer has.
+ *
+ * Objects stay in the right cell when they move: MapObject reports position
+ * changes to the grid it belongs to.
+ */
+public class ObjectGrid {
+    private static final int MIN_BUCKETS = 64;
+
+    private final float cellSize;
+    // Cells hash into a power-of-two table; a bucket can hold several cells
+    private List<MapObject>[] buckets;
+    private int size;
+
+    public ObjectGrid(float cellSize) {
+        this.cellSize = cellSize;
+        this.buckets = newBuckets(MIN_BUCKETS);
+    }
+
+    public void add(MapObject obj) {
+        if (obj.getGrid() != null) {
+            obj.getGrid().remove(obj);
+        }
+        if (size >= buckets.length) {
+            rehash(buckets.length * 2);
+        }
+        insert(obj);
+        obj.setGrid(this);
+        size++;
+    }
+
+    public boolean remove(MapObject obj) {
+        if (obj.getGrid() != this || !removeFromBucket(bucket(obj.getX(), obj.getY()), obj)) {
+            return false;
+        }
+        obj.setGrid(null);
+        size--;
+        return true;
+    }
+
+    // Called by MapObject after its position changed
+    void moved(MapObject obj, float oldX, float oldY) {
+        int oldBucket = bucket(oldX, oldY);
+        if (oldBucket != bucket(obj.getX(), obj.getY()) && removeFromBucket(oldBucket, obj)) {
+            insert(obj);
+        }
+    }
+
+    private void insert(MapObject obj) {
+        int index = bucket(obj.getX(), obj.getY());
+        if (buckets[index] == null) {
+            buckets[index] = new ArrayList<>(4);
+        }
+        buckets[index].add(obj);
+    }
+
+    private boolean removeFromBucket(int index, MapObject obj) {
+        return buckets[index] != null && buckets[index].remove(obj);
+    }
+
+    private void rehash(int bucketCount) {
+        List<MapObject>[] old = buckets;
+        buckets = newBuckets(bucketCount);
+        for (List<MapObject> bucket : old) {
+            if (bucket != null) {
+                for (MapObject obj : bucket) {
+                    insert(obj);
+                }
+            }
+        }
+    }
+
+    /**
+     * Visit the objects whose top-left corner lies within the area, the same
+     * contract as {@link ChunkedWorld#forEachObject}.
+     */
+    public void forEachObject(float minX, float minY, float maxX, float maxY, Consumer<MapObject> action) {
+        if (size == 0) return;
+
+        int minCx = cell(minX);
+        int maxCx = cell(maxX);
+        int minCy = cell(minY);
+        int maxCy = cell(maxY);
+
+        // An area with more cells than buckets is cheaper as one pass over the table
+        if ((long) (maxCx - minCx + 1) * (maxCy - minCy + 1) > buckets.length) {
+            for (List<MapObject> bucket : buckets) {
+                if (bucket != null) {
+                    visit(bucket, minX, minY, maxX, maxY, Integer.MIN_VALUE, 0, action);
+                }
+            }
+            return;
+        }
+
+        for (int cy = minCy; cy <= maxCy; cy++) {
+            for (int cx = minCx; cx <= maxCx; cx++) {
+                List<MapObject> bucket = buckets[bucket(cx, cy)];
+                if (bucket != null) {
+                    visit(bucket, minX, minY, maxX, maxY, cx, cy, action);
+                }
+            }
+        }
+    }
+
+    // Objects in the area, and in cell cx, cy unless cx is MIN_VALUE (another cell sharing the bucket)
+    private void visit(List<MapObject> bucket, float minX, float minY, float maxX, float maxY,
+                       int cx, int cy, Consumer<MapObject> action) {
+        // Backwards, so an action may move or remove the object it is given
+        for (int i = bucket.size() - 1; i >= 0; i--) {
+            if (i >= bucket.size()) continue;
+            MapObject obj = bucket.get(i);
+            float x = obj.getX();
+            float y = obj.getY();
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY
+                    && (cx == Integer.MIN_VALUE || (cell(x) == cx && cell(y) == cy))) {
+                action.accept(obj);
+            }
+        }
+    }
+
+    public void forEach(Consumer<MapObject> action) {
+        for (List<MapObject> bucket : buckets.clone()) {
+            if (bucket != null) {
+                for (MapObject obj : bucket.toArray(new MapObject[0])) {
+                    action.accept(obj);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getBucketCount() {
+        return buckets.length;
+    }
+
+    private int cell(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private int bucket(float x, float y) {
+        return bucket(cell(x), cell(y));
+    }
+
+    private int bucket(int cx, int cy) {
+        int hash = cx * 0x9E3779B1 ^ cy * 0x85EBCA77;
+        return (hash ^ (hash >>> 16)) & (buckets.length - 1);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static List<MapObject>[] newBuckets(int count) {
+        return (List<MapObject>[]) new List[count];
+    }
+}
@@ -0,0 +1,147 @@
+package ctu.game.platformer.model.tilemap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Turns per-tick overlap tests into edge-triggered events: onEnter when the
+ * player starts touching an object, onStay every tick after that, onExit
+ * when it stops.
+ *
+ * Each object has a cooldown (MapObject.getCooldownTicks): an overlap that
+ * starts within that many ticks of the object's last onEnter is ignored
+ * until the player leaves and comes back, so two triggers can't bounce the
+ * player between them. Cooldowns are keyed by the object's layer, tile and
+ * type rather than the instance, since streamed maps recreate objects each
+ * time their chunk loads, and expired ones are dropped at the end of a tick.
+ *
+ * Usage per tick: {@link #beginTick}, {@link #touch} for every overlapping
+ * object, {@link #endTick}. Events are dispatched after the state is
+ * updated, so a listener may switch layers or load another map; a
+ * {@link #reset} from inside a listener drops the rest of the tick's events.
+ */
+public class ObjectTriggers {
+
+    public interface Listener {
+        default void onEnter(MapObject obj) {}
+        default void onStay(MapObject obj) {}
+        default void onExit(MapObject obj) {}
+    }
+
+    // Objects touched last tick, true if their onEnter fired. Insertion ordered, so exits are
+    // dispatched in touch order rather than identity hash order, which differs between runs
+    private Map<MapObject, Boolean> inside = new LinkedHashMap<>();
+    private Map<MapObject, Boolean> touching = new LinkedHashMap<>();
+    // Tick each object's cooldown ends, for those still cooling down
+    private final Map<CooldownKey, Long> cooldownUntil = new HashMap<>();
+
+    private final List<MapObject> entered = new ArrayList<>();
+    private final List<MapObject> stayed = new ArrayList<>();
+    private final List<MapObject> exited = new ArrayList<>();
+
+    private long tick;
+    private int generation;
+
+    public void beginTick() {
+        tick++;
+        touching.clear();
+    }
+
+    // Where an object is, so a chunk reload finds its cooldown again
+    private static final class CooldownKey {
+        final int layer;
+        final int tileX;
+        final int tileY;
+        final String type;
+
+        CooldownKey(int layer, MapObject obj) {
+            this.layer = layer;
+            this.tileX = (int) Math.floor(obj.getX() / TileMap.TILE_SIZE);
+            this.tileY = (int) Math.floor(obj.getY() / TileMap.TILE_SIZE);
+            this.type = obj.getType();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof CooldownKey)) return false;
+            CooldownKey other = (CooldownKey) o;
+            return layer == other.layer && tileX == other.tileX && tileY == other.tileY
+                    && Objects.equals(type, other.type);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(layer, tileX, tileY, type);
+        }
+    }
+
+    public void touch(int layer, MapObject obj) {
+        if (touching.containsKey(obj)) return;
+
+        Boolean fired = inside.get(obj);
+        if (fired == null) {
+            CooldownKey key = new CooldownKey(layer, obj);
+            Long until = cooldownUntil.get(key);
+            fired = until == null || tick >= until;
+            if (fired) {
+                if (obj.getCooldownTicks() > 0) {
+                    cooldownUntil.put(key, tick + obj.getCooldownTicks());
+                }
+                entered.add(obj);
+            }
+        } else if (fired) {
+            stayed.add(obj);
+        }
+        touching.put(obj, fired);
+    }
+
+    public void endTick(Listener listener) {
+        for (Map.Entry<MapObject, Boolean> entry : inside.entrySet()) {
+            if (entry.getValue() && !touching.containsKey(entry.getKey())) {
+                exited.add(entry.getKey());
+            }
+        }
+
+        Map<MapObject, Boolean> previous = inside;
+        inside = touching;
+        touching = previous;
+        cooldownUntil.values().removeIf(until -> until <= tick);
+
+        // Index loops: a reset from a listener empties the lists mid-dispatch
+        int dispatchGeneration = generation;
+        try {
+            for (int i = 0; i < exited.size() && generation == dispatchGeneration; i++) {
+                listener.onExit(exited.get(i));
+            }
+            for (int i = 0; i < entered.size() && generation == dispatchGeneration; i++) {
+                listener.onEnter(entered.get(i));
+            }
+            for (int i = 0; i < stayed.size() && generation == dispatchGeneration; i++) {
+                listener.onStay(stayed.get(i));
+            }
+        } finally {
+            entered.clear();
+            stayed.clear();
+            exited.clear();
+        }
+    }
+
+    // Forget all overlaps and cooldowns without events, e.g. when the map's objects are replaced
+    public void reset() {
+        generation++;
+        inside.clear();
+        touching.clear();
+        cooldownUntil.clear();
+        entered.clear();
+        stayed.clear();
+        exited.clear();
+    }
+
+    public boolean isInside(MapObject obj) {
+        return Boolean.TRUE.equals(inside.get(obj));
+    }
+}
@@ -1,5 +1,7 @@
 package ctu.game.platformer.model.tilemap;
 
+import ctu.game.platformer.util.DevResources;
+import ctu.game.platformer.util.StartupTracer;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.opengl.GL12;
@@ -12,11 +14,62 @@ import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class TextureManager {
-    private static Map<String, Integer> textureCache = new HashMap<>();
+    // Bytes per texel for the RGBA8 textures we upload
+    private static final int BYTES_PER_PIXEL = 4;
+
+    private static class CachedTexture {
+        final int textureId;
+        long bytes;
+        int refCount = 0;
+
+        CachedTexture(int textureId, long bytes) {
+            this.textureId = textureId;
+            this.bytes = bytes;
+        }
+    }
+
+    // RGBA pixels decoded by stb_image, waiting to be uploaded
+    private static class DecodedImage {
+        final ByteBuffer pixels;
+        final int width;
+        final int height;
+
+        DecodedImage(ByteBuffer pixels, int width, int height) {
+            this.pixels = pixels;
+            this.width = width;
+            this.height = height;
+        }
+
+        long getSizeInBytes() {
+            return (long) width * height * BYTES_PER_PIXEL;
+        }
+
+        void free() {
+            STBImage.stbi_image_free(pixels);
+        }
+    }
+
+    // Access-ordered so iteration starts at the least recently used texture
+    private static final LinkedHashMap<String, CachedTexture> textureCache = new LinkedHashMap<>(16, 0.75f, true);
+
+    // Memory budget for cached textures (VRAM estimate, width * height * 4)
+    private static long budgetBytes = 256L * 1024 * 1024;
+    private static long residentBytes = 0;
+
+    // Prefetched images decoded off the GL thread, oldest first
+    private static final LinkedHashMap<String, DecodedImage> staged = new LinkedHashMap<>();
+    private static long prefetchBudgetBytes = 64L * 1024 * 1024;
+    private static long stagedBytes = 0;
+
+    // Cache statistics
+    private static long hits = 0;
+    private static long misses = 0;
+    private static long evictions = 0;
 
     // Default texture for error cases
     private static int defaultTextureId = -1;
@@ -25,7 +78,8 @@ public class TextureManager {
         return loadTexture(path, false);
     }
 
-    public static int loadTexture(String path, boolean useCache) {
+    @SuppressWarnings("try")
+    public static synchronized int loadTexture(String path, boolean useCache) {
         // Skip loading for null or empty paths
         if ("empty".equals(path)) {
             return -1;  // Return invalid texture ID for empty tiles
@@ -35,42 +89,29 @@ public class TextureManager {
             return -1;
         }
 
-        // Check if texture is already in cache
-        if (useCache && textureCache.containsKey(path)) {
-            return textureCache.get(path);
+        // Check if texture is already in cache (also marks it as recently used)
+        if (useCache) {
+            CachedTexture cached = textureCache.get(path);
+            if (cached != null) {
+                hits++;
+                return cached.textureId;
+            }
+            misses++;
         }
 
-        int textureId = 0;
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            // Create texture ID
-            textureId = GL11.glGenTextures();
-
-            // Load image data
-            IntBuffer width = stack.mallocInt(1);
-            IntBuffer height = stack.mallocInt(1);
-            IntBuffer channels = stack.mallocInt(1);
-
-            // Use direct buffer for image loading
-            ByteBuffer imageBuffer = readResourceToByteBuffer(path);
-            if (imageBuffer == null) {
-                System.err.println("Failed to load texture: " + path);
+        // Use the prefetched pixels if a worker already decoded this image
+        DecodedImage image = takeStaged(path);
+        if (image == null) {
+            image = decodeImage(path);
+            if (image == null) {
                 return getDefaultTexture();
             }
+        }
 
-            // Flip Y so image isn't upside down
-            STBImage.stbi_set_flip_vertically_on_load(false);
-
-            ByteBuffer imageData = STBImage.stbi_load_from_memory(
-                    imageBuffer,
-                    width,
-                    height,
-                    channels,
-                    4); // Force RGBA format
-
-            if (imageData == null) {
-                System.err.println("Failed to decode image: " + path + ", error: " + STBImage.stbi_failure_reason());
-                return getDefaultTexture();
-            }
+        int textureId = 0;
+        try (StartupTracer.Span ignored = StartupTracer.begin("upload " + path, "asset")) {
+            // Create texture ID
+            textureId = GL11.glGenTextures();
 
             // Bind texture and set parameters
             GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
@@ -86,19 +127,18 @@ public class TextureManager {
                     GL11.GL_TEXTURE_2D,
                     0,
                     GL11.GL_RGBA,
-                    width.get(0),
-                    height.get(0),
+                    image.width,
+                    image.height,
                     0,
                     GL11.GL_RGBA,
                     GL11.GL_UNSIGNED_BYTE,
-                    imageData);
-
-            // Free image memory
-            STBImage.stbi_image_free(imageData);
+                    image.pixels);
 
             // Store in cache if caching is enabled
             if (useCache) {
-                textureCache.put(path, textureId);
+                textureCache.put(path, new CachedTexture(textureId, image.getSizeInBytes()));
+                residentBytes += image.getSizeInBytes();
+                evictToBudget(path);
             }
 
             return textureId;
@@ -113,11 +153,138 @@ public class TextureManager {
 
             // Return default texture on error
             return getDefaultTexture();
+        } finally {
+            // Free image memory
+            image.free();
         }
     }
 
+    /**
+     * Re-read a cached texture's file and upload it into the same texture id,
+     * so everything holding that id picks up the change. Returns false if the
+     * texture isn't resident (the next load reads the new file anyway).
+     */
+    public static synchronized boolean reloadTexture(String path) {
+        DecodedImage stale = takeStaged(path);
+        if (stale != null) {
+            stale.free();
+        }
+
+        CachedTexture cached = textureCache.get(path);
+        if (cached == null) {
+            return false;
+        }
+
+        DecodedImage image = decodeImage(path);
+        if (image == null) {
+            return false;
+        }
+
+        try {
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, cached.textureId);
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, image.width, image.height,
+                    0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, image.pixels);
+
+            residentBytes += image.getSizeInBytes() - cached.bytes;
+            cached.bytes = image.getSizeInBytes();
+            return true;
+        } finally {
+            image.free();
+        }
+    }
+
+    // Decode an image to RGBA pixels. No GL calls, safe on worker threads.
+    @SuppressWarnings("try")
+    private static DecodedImage decodeImage(String path) {
+        try (StartupTracer.Span ignored = StartupTracer.begin("decode " + path, "asset");
+             MemoryStack stack = MemoryStack.stackPush()) {
+            // Load image data
+            IntBuffer width = stack.mallocInt(1);
+            IntBuffer height = stack.mallocInt(1);
+            IntBuffer channels = stack.mallocInt(1);
+
+            // Use direct buffer for image loading
+            ByteBuffer imageBuffer = readResourceToByteBuffer(path);
+            if (imageBuffer == null) {
+                System.err.println("Failed to load texture: " + path);
+                return null;
+            }
+
+            // Flip Y so image isn't upside down
+            STBImage.stbi_set_flip_vertically_on_load(false);
+
+            ByteBuffer imageData = STBImage.stbi_load_from_memory(
+                    imageBuffer,
+                    width,
+                    height,
+                    channels,
+                    4); // Force RGBA format
+
+            if (imageData == null) {
+                System.err.println("Failed to decode image: " + path + ", error: " + STBImage.stbi_failure_reason());
+                return null;
+            }
+
+            return new DecodedImage(imageData, width.get(0), height.get(0));
+        } catch (Exception e) {
+            System.err.println("Error decoding texture " + path + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Decode an image on the calling (worker) thread and keep the pixels until
+     * the next loadTexture for the same path uploads them. Staged pixels are
+     * limited by the prefetch budget; the oldest are dropped first.
+     */
+    public static void prefetch(String path) {
+        synchronized (TextureManager.class) {
+            if (path == null || textureCache.containsKey(path) || staged.containsKey(path)) {
+                return;
+            }
+        }
+
+        DecodedImage image = decodeImage(path);
+        if (image == null) return;
+
+        synchronized (TextureManager.class) {
+            if (textureCache.containsKey(path) || staged.containsKey(path)
+                    || image.getSizeInBytes() > prefetchBudgetBytes) {
+                image.free();
+                return;
+            }
+
+            staged.put(path, image);
+            stagedBytes += image.getSizeInBytes();
+
+            Iterator<Map.Entry<String, DecodedImage>> it = staged.entrySet().iterator();
+            while (stagedBytes > prefetchBudgetBytes && it.hasNext()) {
+                DecodedImage oldest = it.next().getValue();
+                stagedBytes -= oldest.getSizeInBytes();
+                oldest.free();
+                it.remove();
+            }
+        }
+    }
+
+    private static synchronized DecodedImage takeStaged(String path) {
+        DecodedImage image = staged.remove(path);
+        if (image != null) {
+            stagedBytes -= image.getSizeInBytes();
+        }
+        return image;
+    }
+
+    public static synchronized boolean isStaged(String path) {
+        return staged.containsKey(path);
+    }
+
+    public static synchronized void setPrefetchBudgetBytes(long bytes) {
+        prefetchBudgetBytes = Math.max(0, bytes);
+    }
+
     private static ByteBuffer readResourceToByteBuffer(String resource) {
-        try (InputStream is = TextureManager.class.getClassLoader().getResourceAsStream(resource)) {
+        try (InputStream is = DevResources.open(resource)) {
             if (is == null) {
                 System.err.println("Resource not found: " + resource);
                 return null;
@@ -179,27 +346,112 @@ public class TextureManager {
             GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
             GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
 
-            // Add to cache to prevent recreation
-            textureCache.put("__default__", defaultTextureId);
         }
 
         return defaultTextureId;
     }
 
-    public static void clearCache() {
-        for (Integer id : textureCache.values()) {
-            GL11.glDeleteTextures(id);
+    /**
+     * Load (or reuse) a cached texture and pin it so it can't be evicted.
+     * Every acquire must be balanced by a {@link #releaseTexture(String)}.
+     */
+    public static synchronized int acquireTexture(String path) {
+        int textureId = loadTexture(path, true);
+        CachedTexture cached = textureCache.get(path);
+        if (cached != null) {
+            cached.refCount++;
+        }
+        return textureId;
+    }
+
+    /**
+     * Unpin a texture. It stays resident until the cache needs the space,
+     * and is reloaded transparently by the next loadTexture/acquireTexture.
+     */
+    public static synchronized void releaseTexture(String path) {
+        if (path == null) return;
+
+        CachedTexture cached = textureCache.get(path);
+        if (cached != null && cached.refCount > 0) {
+            cached.refCount--;
+        }
+        evictToBudget(null);
+    }
+
+    // Evict least recently used, unreferenced textures until we fit in the budget
+    private static void evictToBudget(String keep) {
+        Iterator<Map.Entry<String, CachedTexture>> it = textureCache.entrySet().iterator();
+        while (residentBytes > budgetBytes && it.hasNext()) {
+            Map.Entry<String, CachedTexture> entry = it.next();
+            CachedTexture cached = entry.getValue();
+            if (cached.refCount > 0 || entry.getKey().equals(keep)) {
+                continue;
+            }
+
+            GL11.glDeleteTextures(cached.textureId);
+            residentBytes -= cached.bytes;
+            evictions++;
+            it.remove();
+        }
+    }
+
+    public static synchronized void setBudgetBytes(long bytes) {
+        budgetBytes = Math.max(0, bytes);
+        evictToBudget(null);
+    }
+
+    public static synchronized void clearCache() {
+        for (CachedTexture cached : textureCache.values()) {
+            GL11.glDeleteTextures(cached.textureId);
         }
         textureCache.clear();
-        defaultTextureId = -1;
+        residentBytes = 0;
+
+        for (DecodedImage image : staged.values()) {
+            image.free();
+        }
+        staged.clear();
+        stagedBytes = 0;
+
+        if (defaultTextureId != -1) {
+            GL11.glDeleteTextures(defaultTextureId);
+            defaultTextureId = -1;
+        }
     }
 
-    public static int getCacheSize() {
+    public static synchronized int getCacheSize() {
         return textureCache.size();
     }
 
-    public static boolean isCached(String path) {
+    public static synchronized boolean isCached(String path) {
         return textureCache.containsKey(path);
     }
 
+    // Statistics
+    public static synchronized long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public static synchronized long getResidentBytes() {
+        return residentBytes;
+    }
+
+    public static synchronized long getHits() {
+        return hits;
+    }
+
+    public static synchronized long getMisses() {
+        return misses;
+    }
+
+    public static synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public static synchronized String getStatsSummary() {
+        return String.format("textures=%d resident=%.1fMB/%.1fMB hits=%d misses=%d evictions=%d staged=%d (%.1fMB)",
+                textureCache.size(), residentBytes / 1048576.0, budgetBytes / 1048576.0,
+                hits, misses, evictions, staged.size(), stagedBytes / 1048576.0);
+    }
+
 }
\ No newline at end of file
@@ -1,26 +1,51 @@
 package ctu.game.platformer.model.tilemap;
 
 import ctu.game.platformer.model.common.GameObject;
+import ctu.game.platformer.model.ecs.EntityWorld;
 import jakarta.annotation.PostConstruct;
 import org.lwjgl.opengl.GL11;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
 import java.util.*;
+import java.util.function.Consumer;
 
 @Component
 public class TileMap {
     // Constants
-    private static final int TILE_SIZE = 42;
+    public static final int TILE_SIZE = 42;
+    private static final int PORTAL_COOLDOWN_TICKS = 30;
+    private static final int OBJECT_ENEMY = 2;
+    // A pixel inside the tile an enemy is placed on, so no edge starts on a tile border
+    private static final float ENEMY_WIDTH = TILE_SIZE - 2;
+    private static final float ENEMY_HEIGHT = TILE_SIZE - 1;
+    private static final int RENDERED = EntityWorld.POSITION | EntityWorld.BOUNDS | EntityWorld.SPRITE;
     private static final float PARALLAX_X = 0.2f;
     private static final float PARALLAX_Y = 0.05f;
 
+    // Texture files for object types; tile textures come from the tile registry
+    private static final Map<String, String> OBJECT_TEXTURE_FILES = Map.of(
+            "coin", "textures/objects/coin.png",
+            "enemy", "textures/objects/enemy.png",
+            "layerportal", "textures/objects/layerportal.png",
+            "layerreturn", "textures/objects/layerreturn.png"
+    );
+
+    // Tile semantics (solidity, friction, textures...) by tile id
+    private TileRegistry tileRegistry;
+    private final float[] tileUV = new float[4];
+
     // Map properties
+    private String currentMapFile = null;
     private int mapWidth;
     private int mapHeight;
-    private byte[][][] mapLayers;
+    // Tile ids, flat: (layer * mapHeight + y) * mapWidth + x
+    private byte[] tiles;
+    // Per-layer solidity bits indexed by y * mapWidth + x; upper layers include
+    // layer 0 since both block the player
+    private long[][] solidMasks;
+    private ChunkedWorld world; // Set instead of tiles for streamed maps
     private int layerCount;
     private boolean[] layerVisible;
 
@@ -38,109 +63,272 @@ public class TileMap {
     private float prevCameraY = 0;
     private final float SMOOTHING_FACTOR = 0.1f;
 
-    // Background
+    // Background (cached and evicted by TextureManager)
     private String currentBackground = null;
+    private String backgroundTexturePath = null;
     private int backgroundTextureId = -1;
-    private Map<String, Integer> backgroundCache = new HashMap<>();
 
-    // Textures
+    // Textures (pinned in TextureManager while loaded)
     private Map<Integer, Integer> tileTextures = new HashMap<>();
     private Map<String, Integer> objectTextures = new HashMap<>();
+    private Map<Integer, String> tileTexturePaths = new HashMap<>();
+    private Map<String, String> objectTexturePaths = new HashMap<>();
     private boolean texturesLoaded = false;
     private int defaultTextureId = -1;
 
     // Objects
-    private Map<Integer, List<MapObject>> layerObjects = new HashMap<>();
+    private Map<Integer, ObjectGrid> layerObjects = new HashMap<>();
+    private final ObjectTriggers objectTriggers = new ObjectTriggers();
+
+    // Tile edits queued for the next tick boundary, four ints each: layer, x, y, tile
+    private final Object editLock = new Object();
+    private int[] pendingEdits = new int[256];
+    private int[] applyingEdits = new int[256];
+    private int pendingEditCount = 0;
+    private final List<TileChangeListener> tileChangeListeners = new ArrayList<>();
+
+    /**
+     * Told which tiles changed after each batch of edits, one rectangle (in
+     * tiles, inclusive) per layer and CHUNK_SIZE region touched, so caches of
+     * rendered or summarized tiles can update just those parts.
+     */
+    public interface TileChangeListener {
+        void onTilesChanged(int layer, int minX, int minY, int maxX, int maxY);
+    }
     private List<MapObject> objects = new ArrayList<>();
 
+    // Things that update every tick (enemies), driven by the entity systems
+    private EntityWorld entities = new EntityWorld();
+
+    @Autowired(required = false)
+    private Long textureBudgetBytes;
+
+    @Autowired(required = false)
+    private Long streamingMapThresholdBytes;
+
+    @Autowired(required = false)
+    private Long mapCacheBudgetBytes;
+
+    public TileMap() {
+        this(TileRegistry.load(TileRegistry.DEFINITION_FILE));
+    }
+
+    private TileMap(TileRegistry tileRegistry) {
+        this.tileRegistry = tileRegistry;
+    }
+
     @PostConstruct
     public void init() {
         // Spring initialization hook
+        if (textureBudgetBytes != null) {
+            TextureManager.setBudgetBytes(textureBudgetBytes);
+        }
+        if (mapCacheBudgetBytes != null) {
+            MapLoader.setCacheBudgetBytes(mapCacheBudgetBytes);
+        }
     }
 
     public void loadMap(String filename) {
-        try (InputStream is = getClass().getClassLoader().getResourceAsStream("maps/" + filename);
-             BufferedReader reader = new BufferedReader(new InputStreamReader(is))) {
+        if (!openMap(filename)) {
+            return; // Keep the current map
+        }
+        currentMapFile = filename;
 
-            // Parse map dimensions and layer information
-            String[] dimensions = reader.readLine().split(",");
-            mapWidth = Integer.parseInt(dimensions[0]);
-            mapHeight = Integer.parseInt(dimensions[1]);
-            layerCount = Integer.parseInt(dimensions[2]);
+        if (world != null) {
+            System.out.println("Map streaming: " + mapWidth + "x" + mapHeight + " with " + layerCount +
+                    " layers and " + world.getObjectCount() + " objects in " +
+                    ChunkedWorld.CHUNK_SIZE + "x" + ChunkedWorld.CHUNK_SIZE + " chunks");
+        } else {
+            System.out.println("Map loaded: " + mapWidth + "x" + mapHeight + " with " + layerCount +
+                    " layers and " + objects.size() + " objects (map cache: " +
+                    MapLoader.getCacheStatsSummary() + ")");
+        }
+    }
 
-            // Initialize data structures
-            initializeMapData();
+    // Stream large binary maps in chunks, load everything else whole
+    private boolean openMap(String filename) {
+        String binary = MapLoader.binaryFileFor(filename);
+        if (binary != null && streamingMapThresholdBytes != null) {
+            try {
+                ChunkedWorld streamed = ChunkedWorld.open(binary, TILE_SIZE, this::createObject,
+                        this::isTileSolid, streamingMapThresholdBytes);
+                if (streamed != null) {
+                    applyWorld(streamed);
+                    return true;
+                }
+            } catch (IOException e) {
+                System.err.println("Error streaming map " + binary + ": " + e.getMessage());
+            }
+        }
+
+        MapData data = MapLoader.load(filename);
+        if (data == null) {
+            return false;
+        }
+        applyMapData(data);
+        return true;
+    }
 
-            // Read layer tile data
-            loadLayerData(reader);
+    // Use a map that doesn't come from a file, e.g. one built by MapGenerator
+    public void loadMapData(MapData data) {
+        applyMapData(data);
+        currentMapFile = data.getFilename();
+    }
 
-            // Read object data
-            loadObjectData(reader);
+    /**
+     * Re-read the current map file (dev hot reload). The active layer and
+     * camera are kept so play continues where it was.
+     */
+    public boolean reloadMap() {
+        if (currentMapFile == null) return false;
 
-            System.out.println("Map loaded: " + mapWidth + "x" + mapHeight + " with " + layerCount +
-                    " layers and " + objects.size() + " objects");
-        } catch (Exception e) {
-            System.err.println("Error loading map: " + e.getMessage());
-            e.printStackTrace();
-        }
+        MapLoader.invalidate(currentMapFile);
+
+        int keepLayer = currentLayer;
+        int keepPreviousLayer = previousLayer;
+        if (!openMap(currentMapFile)) return false;
+        currentLayer = Math.min(keepLayer, layerCount - 1);
+        previousLayer = Math.min(keepPreviousLayer, layerCount - 1);
+
+        System.out.println("Map reloaded: " + currentMapFile);
+        return true;
     }
 
-    private void initializeMapData() {
-        // Initialize map arrays
-        mapLayers = new byte[layerCount][mapHeight][mapWidth];
-        layerVisible = new boolean[layerCount];
-        Arrays.fill(layerVisible, true);
+    void applyMapData(MapData data) {
+        // Parse map dimensions and layer information
+        mapWidth = data.getWidth();
+        mapHeight = data.getHeight();
+        layerCount = data.getLayerCount();
 
-        // Clear object collections
-        objects.clear();
-        layerObjects.clear();
+        // Initialize data structures
+        initializeMapData();
 
-        for (int i = 0; i < layerCount; i++) {
-            layerObjects.put(i, new ArrayList<>());
+        // Layer tile data is handed over as-is
+        tiles = data.getTiles();
+        buildSolidMasks();
+        world = null;
+
+        // Create objects
+        for (int i = 0; i < data.getObjectCount(); i++) {
+            int objLayer = data.getObjectLayer(i);
+            int targetLayer = (objLayer >= 0 && objLayer < layerCount) ? objLayer : 0;
+            if (data.getObjectType(i) == OBJECT_ENEMY) {
+                spawnEnemy(data.getObjectX(i), data.getObjectY(i), targetLayer);
+                continue;
+            }
+
+            MapObject obj = createObject(data.getObjectType(i), data.getObjectX(i), data.getObjectY(i));
+            if (obj != null) {
+                objects.add(obj);
+
+                // Add to correct layer
+                layerObjects.get(targetLayer).add(obj);
+            }
         }
     }
 
-    private void loadLayerData(BufferedReader reader) throws Exception {
-        for (int layer = 0; layer < layerCount; layer++) {
-            for (int y = 0; y < mapHeight; y++) {
-                String line = reader.readLine();
-                if (line == null) break;
+    // Enemies are entities rather than map objects: they move, and stay alive when streamed chunks unload
+    private void spawnEnemy(float x, float y, int layer) {
+        int id = entities.create(EntityWorld.POSITION | EntityWorld.VELOCITY | EntityWorld.BOUNDS
+                | EntityWorld.SPRITE | EntityWorld.AI | EntityWorld.GRAVITY | EntityWorld.TILE_COLLISION);
+        entities.setPosition(id, x + 1, y);
+        entities.setBounds(id, ENEMY_WIDTH, ENEMY_HEIGHT);
+        entities.setLayer(id, layer);
+        entities.setSprite(id, entities.spriteId("enemy"));
+    }
+
+    /**
+     * An empty map with this map's settings and tile registry. A level can be
+     * loaded into it off the game thread (no GL calls happen until render)
+     * and then published with {@link #adopt}.
+     */
+    public TileMap createStagingMap() {
+        TileMap staged = new TileMap(tileRegistry);
+        staged.streamingMapThresholdBytes = streamingMapThresholdBytes;
+        staged.showCollision = showCollision;
+        return staged;
+    }
+
+    /**
+     * Take over the map, objects and background of a staged map in one step.
+     * Call on the game thread between ticks; textures stay loaded since tile
+     * and object textures are shared by every level.
+     */
+    public void adopt(TileMap staged) {
+        currentMapFile = staged.currentMapFile;
+        mapWidth = staged.mapWidth;
+        mapHeight = staged.mapHeight;
+        layerCount = staged.layerCount;
+        layerVisible = staged.layerVisible;
+        tiles = staged.tiles;
+        solidMasks = staged.solidMasks;
+        world = staged.world;
+        objects = staged.objects;
+        layerObjects = staged.layerObjects;
+        entities = staged.entities;
+        currentLayer = staged.currentLayer;
+        previousLayer = staged.previousLayer;
+        objectTriggers.reset();
+        discardTileEdits();
+        setBackground(staged.currentBackground);
+    }
+
+    private void applyWorld(ChunkedWorld streamed) {
+        mapWidth = streamed.getWidth();
+        mapHeight = streamed.getHeight();
+        layerCount = streamed.getLayerCount();
+
+        // Objects live in the world's chunks, the lists stay empty
+        initializeMapData();
+
+        tiles = null;
+        solidMasks = null;
+        world = streamed;
+
+        // Enemies all spawn up front; the chunks skip them (createObject has no enemy type)
+        streamed.forEachObjectEntry((type, x, y, layer) -> {
+            if (type == OBJECT_ENEMY) {
+                spawnEnemy(x, y, layer >= 0 && layer < layerCount ? layer : 0);
+            }
+        });
+    }
+
+    private void buildSolidMasks() {
+        int layerSize = mapWidth * mapHeight;
+        solidMasks = new long[layerCount][(layerSize + 63) >>> 6];
 
-                String[] tiles = line.split(",");
-                for (int x = 0; x < Math.min(mapWidth, tiles.length); x++) {
-                    mapLayers[layer][y][x] = (byte) Integer.parseInt(tiles[x]);
+        for (int layer = 0; layer < layerCount; layer++) {
+            long[] bits = solidMasks[layer];
+            int offset = layer * layerSize;
+            for (int i = 0; i < layerSize; i++) {
+                if (isTileSolid(tiles[offset + i] & 0xFF)) {
+                    bits[i >>> 6] |= 1L << i;
                 }
             }
 
-            // Skip empty line between layers if not the last layer
-            if (layer < layerCount - 1) {
-                reader.readLine();
+            if (layer > 0) {
+                long[] base = solidMasks[0];
+                for (int w = 0; w < bits.length; w++) {
+                    bits[w] |= base[w];
+                }
             }
         }
     }
 
-    private void loadObjectData(BufferedReader reader) throws Exception {
-        String line;
-        while ((line = reader.readLine()) != null) {
-            line = line.trim();
-            if (!line.isEmpty()) {
-                String[] parts = line.split(",");
-                if (parts.length >= 4) { // Type, X, Y, Layer
-                    int type = Integer.parseInt(parts[0]);
-                    float objX = Float.parseFloat(parts[1]);
-                    float objY = Float.parseFloat(parts[2]);
-                    int objLayer = Integer.parseInt(parts[3]);
+    private void initializeMapData() {
+        // Initialize map arrays
+        layerVisible = new boolean[layerCount];
+        Arrays.fill(layerVisible, true);
 
-                    MapObject obj = createObject(type, objX, objY);
-                    if (obj != null) {
-                        objects.add(obj);
+        // Clear object collections
+        objects.clear();
+        layerObjects.clear();
+        objectTriggers.reset();
+        discardTileEdits();
+        entities.clear();
 
-                        // Add to correct layer
-                        int targetLayer = (objLayer >= 0 && objLayer < layerCount) ? objLayer : 0;
-                        layerObjects.get(targetLayer).add(obj);
-                    }
-                }
-            }
+        for (int i = 0; i < layerCount; i++) {
+            layerObjects.put(i, new ObjectGrid(TILE_SIZE));
         }
     }
 
@@ -185,6 +373,11 @@ public class TileMap {
         int startTileY = Math.max(0, (int)(cameraY / TILE_SIZE));
         int endTileY = Math.min(mapHeight, (int)((cameraY + screenHeight) / TILE_SIZE) + 1);
 
+        // Bring in the chunks around the view, drop the ones left behind
+        if (world != null) {
+            world.update(cameraX, cameraY, screenWidth, screenHeight);
+        }
+
         // Enable texturing
         GL11.glEnable(GL11.GL_TEXTURE_2D);
         GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
@@ -192,7 +385,8 @@ public class TileMap {
         // Only render visible layer
         if (layerVisible[currentLayer]) {
             renderTiles(startTileX, endTileX, startTileY, endTileY);
-            renderLayerObjects(currentLayer);
+            renderLayerObjects(currentLayer, screenWidth, screenHeight);
+            renderEntities(currentLayer, screenWidth, screenHeight);
         }
 
         GL11.glDisable(GL11.GL_TEXTURE_2D);
@@ -204,7 +398,7 @@ public class TileMap {
     private void renderTiles(int startX, int endX, int startY, int endY) {
         for (int y = startY; y < endY; y++) {
             for (int x = startX; x < endX; x++) {
-                int tileType = mapLayers[currentLayer][y][x];
+                int tileType = getTile(currentLayer, x, y);
                 if (tileType == 0) continue; // Skip empty tiles
 
                 float drawX = x * TILE_SIZE;
@@ -227,8 +421,8 @@ public class TileMap {
 
         // Load texture if needed (with caching)
         if (backgroundTextureId == -1) {
-            backgroundTextureId = backgroundCache.computeIfAbsent(currentBackground,
-                    bg -> TextureManager.loadTexture("assets/images/" + bg, true));
+            backgroundTexturePath = "assets/images/" + currentBackground;
+            backgroundTextureId = TextureManager.acquireTexture(backgroundTexturePath);
         }
 
         if (backgroundTextureId != -1) {
@@ -264,19 +458,12 @@ public class TileMap {
 
         try {
             // Batch load tile textures
-            Map<String, Integer> tileTextureFiles = Map.of(
-                    "maps/tiles/wall.png", 1,
-                    "maps/tiles/grass.png", 2,
-                    "maps/tiles/dirt.png", 3,
-                    "maps/tiles/water.png", 4
-            );
-
-            // Load all textures
-            tileTextureFiles.forEach((path, id) -> {
+            tileRegistry.getTextures().forEach((id, path) -> {
                 if (!tileTextures.containsKey(id)) {
                     try {
-                        int textureId = TextureManager.loadTexture(path, true);
+                        int textureId = TextureManager.acquireTexture(path);
                         tileTextures.put(id, textureId);
+                        tileTexturePaths.put(id, path);
                     } catch (Exception e) {
                         System.err.println("Failed to load tile texture " + path + ": " + e.getMessage());
                         if (defaultTextureId != -1) {
@@ -287,25 +474,33 @@ public class TileMap {
             });
 
             // Batch load object textures
-            loadObjectTexture("coin", "textures/objects/coin.png");
-            loadObjectTexture("enemy", "textures/objects/enemy.png");
-            loadObjectTexture("layerportal", "textures/objects/layerportal.png");
-            loadObjectTexture("layerreturn", "textures/objects/layerreturn.png");
+            OBJECT_TEXTURE_FILES.forEach(this::loadObjectTexture);
 
             texturesLoaded = true;
             long endTime = System.currentTimeMillis();
             System.out.println("Textures loaded in " + (endTime - startTime) + "ms");
+            System.out.println("Texture cache: " + TextureManager.getStatsSummary());
         } catch (Exception e) {
             System.err.println("Error initializing textures: " + e.getMessage());
             e.printStackTrace();
         }
     }
 
+    // Decode tile, object and background images off the GL thread; loadTextures then only uploads
+    public void prefetchTextures() {
+        tileRegistry.getTextures().values().forEach(TextureManager::prefetch);
+        OBJECT_TEXTURE_FILES.values().forEach(TextureManager::prefetch);
+        if (currentBackground != null && !currentBackground.isEmpty()) {
+            TextureManager.prefetch("assets/images/" + currentBackground);
+        }
+    }
+
     private void loadObjectTexture(String key, String path) {
         if (!objectTextures.containsKey(key)) {
             try {
-                int textureId = TextureManager.loadTexture(path, true);
+                int textureId = TextureManager.acquireTexture(path);
                 objectTextures.put(key, textureId);
+                objectTexturePaths.put(key, path);
             } catch (Exception e) {
                 System.err.println("Failed to load object texture " + path + ": " + e.getMessage());
             }
@@ -313,12 +508,14 @@ public class TileMap {
     }
 
     public void unloadUnusedTextures() {
-        // Remove unused tile textures
-        tileTextures.values().forEach(GL11::glDeleteTextures);
+        // Unpin tile textures; TextureManager evicts them when it needs the space
+        tileTexturePaths.values().forEach(TextureManager::releaseTexture);
+        tileTexturePaths.clear();
         tileTextures.clear();
 
-        // Remove unused object textures
-        objectTextures.values().forEach(GL11::glDeleteTextures);
+        // Unpin object textures
+        objectTexturePaths.values().forEach(TextureManager::releaseTexture);
+        objectTexturePaths.clear();
         objectTextures.clear();
 
         texturesLoaded = false;
@@ -329,17 +526,13 @@ public class TileMap {
 
         if (textureId != null) {
             GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
-            drawQuad(x, y, TILE_SIZE, TILE_SIZE);
+            tileRegistry.getFrameUV(tileType, System.currentTimeMillis(), tileUV);
+            drawQuad(x, y, TILE_SIZE, TILE_SIZE, tileUV[0], tileUV[1], tileUV[2], tileUV[3]);
         } else {
-            // Fallback to colored rectangles if texture not found
+            // Fallback to the tile's color if texture not found
             GL11.glDisable(GL11.GL_TEXTURE_2D);
-            switch (tileType) {
-                case 1: GL11.glColor3f(0.5f, 0.5f, 0.5f); break; // Gray
-                case 2: GL11.glColor3f(0.0f, 0.8f, 0.0f); break; // Green
-                case 3: GL11.glColor3f(0.6f, 0.3f, 0.0f); break; // Brown
-                case 4: GL11.glColor3f(0.0f, 0.0f, 0.8f); break; // Blue
-                default: GL11.glColor3f(1.0f, 1.0f, 1.0f); // White
-            }
+            GL11.glColor3f(tileRegistry.getRed(tileType), tileRegistry.getGreen(tileType),
+                    tileRegistry.getBlue(tileType));
 
             drawQuad(x, y, TILE_SIZE, TILE_SIZE);
 
@@ -350,53 +543,76 @@ public class TileMap {
     }
 
     private void drawQuad(float x, float y, float width, float height) {
+        drawQuad(x, y, width, height, 0, 0, 1, 1);
+    }
+
+    private void drawQuad(float x, float y, float width, float height, float u0, float v0, float u1, float v1) {
         GL11.glBegin(GL11.GL_QUADS);
-        GL11.glTexCoord2f(0, 0); GL11.glVertex2f(x, y);
-        GL11.glTexCoord2f(1, 0); GL11.glVertex2f(x + width, y);
-        GL11.glTexCoord2f(1, 1); GL11.glVertex2f(x + width, y + height);
-        GL11.glTexCoord2f(0, 1); GL11.glVertex2f(x, y + height);
+        GL11.glTexCoord2f(u0, v0); GL11.glVertex2f(x, y);
+        GL11.glTexCoord2f(u1, v0); GL11.glVertex2f(x + width, y);
+        GL11.glTexCoord2f(u1, v1); GL11.glVertex2f(x + width, y + height);
+        GL11.glTexCoord2f(u0, v1); GL11.glVertex2f(x, y + height);
         GL11.glEnd();
     }
 
-    private void renderLayerObjects(int layer) {
-        List<MapObject> objectsToRender = layerObjects.getOrDefault(layer, Collections.emptyList());
-        for (MapObject obj : objectsToRender) {
-            // Simple culling - only render objects near the camera
-            if (isObjectVisible(obj)) {
-                renderObject(obj, obj.getX(), obj.getY());
+    private void renderLayerObjects(int layer, int screenWidth, int screenHeight) {
+        // Objects are a tile wide, so look one tile beyond the view's top-left
+        forEachObject(layer, cameraX - TILE_SIZE, cameraY - TILE_SIZE,
+                cameraX + screenWidth, cameraY + screenHeight,
+                obj -> renderObject(obj, obj.getX(), obj.getY()));
+    }
+
+    private void renderEntities(int layer, int screenWidth, int screenHeight) {
+        for (int slot = 0; slot < entities.size(); slot++) {
+            int id = entities.idAt(slot);
+            if ((entities.getComponents(id) & RENDERED) != RENDERED || entities.getLayer(id) != layer) continue;
+
+            float x = entities.getX(id);
+            float y = entities.getY(id);
+            float width = entities.getWidth(id);
+            float height = entities.getHeight(id);
+            if (x + width < cameraX || x > cameraX + screenWidth || y + height < cameraY || y > cameraY + screenHeight) {
+                continue;
             }
+            renderSprite(entities.getSpriteName(entities.getSprite(id)), x, y, width, height);
         }
     }
 
-    private boolean isObjectVisible(MapObject obj) {
-        float objCenterX = obj.getX() + obj.getWidth()/2;
-        float objCenterY = obj.getY() + obj.getHeight()/2;
-
-        // Only render objects near the camera view (with padding)
-        float visibilityRadius = Math.max(1024, Math.max(mapWidth, mapHeight) * TILE_SIZE / 2);
-        float dx = objCenterX - cameraX;
-        float dy = objCenterY - cameraY;
+    // Objects of a layer with their top-left corner in the area, from the grid or the streamed chunks
+    private void forEachObject(int layer, float minX, float minY, float maxX, float maxY, Consumer<MapObject> action) {
+        if (world != null) {
+            world.forEachObject(layer, minX, minY, maxX, maxY, action);
+            return;
+        }
 
-        return (dx*dx + dy*dy) <= visibilityRadius*visibilityRadius;
+        ObjectGrid grid = layerObjects.get(layer);
+        if (grid != null) {
+            grid.forEachObject(minX, minY, maxX, maxY, action);
+        }
     }
 
     private void renderObject(MapObject obj, float screenX, float screenY) {
-        Integer textureId = objectTextures.get(obj.getType());
+        renderSprite(obj.getType(), screenX, screenY, obj.getWidth(), obj.getHeight());
+    }
+
+    // Object texture by type name, shared by map objects and entities
+    private void renderSprite(String type, float screenX, float screenY, float width, float height) {
+        Integer textureId = objectTextures.get(type);
 
         if (textureId != null) {
             GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
-            drawQuad(screenX, screenY, obj.getWidth(), obj.getHeight());
+            drawQuad(screenX, screenY, width, height);
         } else {
             // Fallback rendering without texture
             GL11.glDisable(GL11.GL_TEXTURE_2D);
 
-            switch (obj.getType()) {
+            switch (type) {
                 case "coin": GL11.glColor3f(1.0f, 1.0f, 0.0f); break; // Yellow
                 case "enemy": GL11.glColor3f(1.0f, 0.0f, 0.0f); break; // Red
                 default: GL11.glColor3f(0.8f, 0.8f, 0.8f); break; // Gray
             }
 
-            drawQuad(screenX, screenY, obj.getWidth(), obj.getHeight());
+            drawQuad(screenX, screenY, width, height);
 
             // Restore state
             GL11.glEnable(GL11.GL_TEXTURE_2D);
@@ -405,7 +621,7 @@ public class TileMap {
 
         // Debug outline for collision visualization
         if (showCollision) {
-            renderCollisionBox(screenX, screenY, obj.getWidth(), obj.getHeight());
+            renderCollisionBox(screenX, screenY, width, height);
         }
     }
 
@@ -431,34 +647,54 @@ public class TileMap {
     }
 
     private MapObject createObject(int type, float x, float y) {
-        return switch (type) {
+        MapObject obj = switch (type) {
             case 1 -> new MapObject(x, y, TILE_SIZE, TILE_SIZE, "coin", "level2.csv");
-            case 2 -> new MapObject(x, y, TILE_SIZE, TILE_SIZE, "enemy", null);
             case 3 -> new MapObject(x, y, TILE_SIZE, TILE_SIZE, "layerportal", null, 1);
             case 4 -> new MapObject(x, y, TILE_SIZE, TILE_SIZE, "layerreturn", null);
             default -> null;
         };
+
+        // Half a second before a portal can move the player again
+        if (obj != null && (type == 3 || type == 4)) {
+            obj.setCooldownTicks(PORTAL_COOLDOWN_TICKS);
+        }
+        return obj;
     }
 
     public void checkPlayerPosition(float playerX, float playerY) {
-        // Only check objects in the current layer
-        List<MapObject> currentLayerObjects = layerObjects.getOrDefault(currentLayer, Collections.emptyList());
-
-        for (MapObject obj : currentLayerObjects) {
-            // Improved collision detection
-            float objCenterX = obj.getX() + obj.getWidth() / 2;
-            float objCenterY = obj.getY() + obj.getHeight() / 2;
-            float distX = playerX - objCenterX;
-            float distY = playerY - objCenterY;
-            float distance = (float) Math.sqrt(distX * distX + distY * distY);
-            float collisionRadius = (TILE_SIZE / 2 + obj.getWidth() / 2);
-
-            if (distance < collisionRadius) {
-                handleObjectInteraction(obj);
-            }
+        objectTriggers.beginTick();
+
+        // Contact needs the object center within a tile, so its corner is within two;
+        // only the cells around the player are visited
+        forEachObject(currentLayer, playerX - 2 * TILE_SIZE, playerY - 2 * TILE_SIZE,
+                playerX + TILE_SIZE, playerY + TILE_SIZE,
+                obj -> checkObjectContact(obj, playerX, playerY));
+
+        // Interactions run once when contact starts, not every tick the player stays on an object
+        objectTriggers.endTick(objectInteractions);
+    }
+
+    private void checkObjectContact(MapObject obj, float playerX, float playerY) {
+        // Improved collision detection
+        float objCenterX = obj.getX() + obj.getWidth() / 2;
+        float objCenterY = obj.getY() + obj.getHeight() / 2;
+        float distX = playerX - objCenterX;
+        float distY = playerY - objCenterY;
+        float distance = (float) Math.sqrt(distX * distX + distY * distY);
+        float collisionRadius = (TILE_SIZE / 2 + obj.getWidth() / 2);
+
+        if (distance < collisionRadius) {
+            objectTriggers.touch(currentLayer, obj);
         }
     }
 
+    private final ObjectTriggers.Listener objectInteractions = new ObjectTriggers.Listener() {
+        @Override
+        public void onEnter(MapObject obj) {
+            handleObjectInteraction(obj);
+        }
+    };
+
     private void handleObjectInteraction(MapObject obj) {
         switch (obj.getType()) {
             case "layerportal":
@@ -495,42 +731,239 @@ public class TileMap {
 
     public void setBackground(String backgroundPath) {
         if (!Objects.equals(this.currentBackground, backgroundPath)) {
+            // Unpin the old background so it becomes eligible for eviction
+            TextureManager.releaseTexture(backgroundTexturePath);
+            this.backgroundTexturePath = null;
             this.currentBackground = backgroundPath;
             this.backgroundTextureId = -1; // Force texture reload
         }
     }
 
+    /**
+     * Queue a tile change. Edits from any thread are batched and applied
+     * together by {@link #applyTileEdits} at the next tick boundary, so a
+     * tick never sees a half-applied batch. Edits still queued when another
+     * map loads are dropped.
+     */
+    public void setTile(int layer, int x, int y, int tile) {
+        synchronized (editLock) {
+            if (pendingEditCount * 4 == pendingEdits.length) {
+                pendingEdits = Arrays.copyOf(pendingEdits, pendingEdits.length * 2);
+            }
+            int i = pendingEditCount++ * 4;
+            pendingEdits[i] = layer;
+            pendingEdits[i + 1] = x;
+            pendingEdits[i + 2] = y;
+            pendingEdits[i + 3] = tile & 0xFF;
+        }
+    }
+
+    public void addTileChangeListener(TileChangeListener listener) {
+        tileChangeListeners.add(listener);
+    }
+
+    public void removeTileChangeListener(TileChangeListener listener) {
+        tileChangeListeners.remove(listener);
+    }
+
+    /**
+     * Apply the queued edits. Only the edited cells' tiles and collision bits
+     * are touched, never the whole layer. Game thread, between ticks. Returns
+     * the number of tiles that changed.
+     */
+    public int applyTileEdits() {
+        int[] edits;
+        int count;
+        synchronized (editLock) {
+            if (pendingEditCount == 0) return 0;
+            edits = pendingEdits;
+            count = pendingEditCount;
+            pendingEdits = applyingEdits;
+            pendingEditCount = 0;
+            applyingEdits = edits;
+        }
+
+        // Dirty rectangle per layer and region: minX, minY, maxX, maxY
+        Map<Long, int[]> dirty = tileChangeListeners.isEmpty() ? null : new HashMap<>();
+        int changed = 0;
+
+        for (int e = 0; e < count * 4; e += 4) {
+            int layer = edits[e];
+            int x = edits[e + 1];
+            int y = edits[e + 2];
+            int tile = edits[e + 3];
+            if (layer < 0 || layer >= layerCount || x < 0 || x >= mapWidth || y < 0 || y >= mapHeight) continue;
+            if ((getTile(layer, x, y) & 0xFF) == tile) continue;
+
+            if (world != null) {
+                world.setTile(layer, x, y, tile);
+            } else {
+                tiles[(layer * mapHeight + y) * mapWidth + x] = (byte) tile;
+                refreshSolidBits(y * mapWidth + x);
+            }
+            changed++;
+
+            if (dirty != null) {
+                long key = ((long) layer << 48) | ((long) (y >> ChunkedWorld.CHUNK_SHIFT) << 24)
+                        | (x >> ChunkedWorld.CHUNK_SHIFT);
+                int[] rect = dirty.get(key);
+                if (rect == null) {
+                    dirty.put(key, new int[] { x, y, x, y });
+                } else {
+                    rect[0] = Math.min(rect[0], x);
+                    rect[1] = Math.min(rect[1], y);
+                    rect[2] = Math.max(rect[2], x);
+                    rect[3] = Math.max(rect[3], y);
+                }
+            }
+        }
+
+        if (dirty != null) {
+            for (Map.Entry<Long, int[]> entry : dirty.entrySet()) {
+                int layer = (int) (entry.getKey() >>> 48);
+                int[] rect = entry.getValue();
+                for (TileChangeListener listener : tileChangeListeners) {
+                    listener.onTilesChanged(layer, rect[0], rect[1], rect[2], rect[3]);
+                }
+            }
+        }
+        return changed;
+    }
+
+    private void discardTileEdits() {
+        synchronized (editLock) {
+            pendingEditCount = 0;
+        }
+    }
+
+    // Recompute one cell's solidity bits on every layer, as buildSolidMasks would
+    private void refreshSolidBits(int index) {
+        int layerSize = mapWidth * mapHeight;
+        long bit = 1L << index;
+        boolean base = isTileSolid(tiles[index] & 0xFF);
+        for (int layer = 0; layer < layerCount; layer++) {
+            boolean solid = base || (layer > 0 && isTileSolid(tiles[layer * layerSize + index] & 0xFF));
+            if (solid) {
+                solidMasks[layer][index >>> 6] |= bit;
+            } else {
+                solidMasks[layer][index >>> 6] &= ~bit;
+            }
+        }
+    }
+
     public boolean isSolid(float x, float y) {
-        int tileX = (int)(x / TILE_SIZE);
-        int tileY = (int)(y / TILE_SIZE);
+        return isSolidTile((int)(x / TILE_SIZE), (int)(y / TILE_SIZE));
+    }
+
+    // Same as isSolid, in tile coordinates
+    public boolean isSolidTile(int tileX, int tileY) {
+        return isSolidTile(currentLayer, tileX, tileY);
+    }
 
+    // Solidity as seen from a layer, e.g. for entities that aren't on the current one
+    public boolean isSolidTile(int layer, int tileX, int tileY) {
         // Check bounds
         if (tileX < 0 || tileX >= mapWidth || tileY < 0 || tileY >= mapHeight) {
             return true; // Out of bounds is solid
         }
 
-        // Check base layer (layer 0)
-        if (isTileSolid(mapLayers[0][tileY][tileX])) {
-            return true;
+        // One bit test covers the base layer and the layer itself
+        if (world != null) {
+            return world.isSolid(layer, tileX, tileY);
         }
+        int index = tileY * mapWidth + tileX;
+        return (solidMasks[layer][index >>> 6] & (1L << index)) != 0;
+    }
 
-        // Check current layer if different from base
-        if (currentLayer > 0 && isTileSolid(mapLayers[currentLayer][tileY][tileX])) {
+    // Whether tile queries here are answered without loading anything: always, unless streamed
+    public boolean isTileResident(int tileX, int tileY) {
+        if (world == null || tileX < 0 || tileX >= mapWidth || tileY < 0 || tileY >= mapHeight) {
             return true;
         }
+        return world.isResident(tileX, tileY);
+    }
 
-        return false;
+    // Tile id at map coordinates, from the loaded layers or the streamed chunks
+    private int getTile(int layer, int x, int y) {
+        if (world != null) {
+            return world.getTile(layer, x, y);
+        }
+        return tiles[(layer * mapHeight + y) * mapWidth + x] & 0xFF;
     }
 
     private boolean isTileSolid(int tileType) {
-        return tileType == 1 || tileType == 4;
+        return tileRegistry.isSolid(tileType);
+    }
+
+    // Tile whose surface is at a point: the current layer's, or the base layer's where that is empty
+    private int surfaceTile(float x, float y) {
+        int tileX = (int)(x / TILE_SIZE);
+        int tileY = (int)(y / TILE_SIZE);
+        if (tileX < 0 || tileX >= mapWidth || tileY < 0 || tileY >= mapHeight) {
+            return 0;
+        }
+
+        int tile = currentLayer > 0 ? getTile(currentLayer, tileX, tileY) : 0;
+        return tile != 0 ? tile : getTile(0, tileX, tileY);
+    }
+
+    public float getFrictionAt(float x, float y) {
+        return tileRegistry.getFriction(surfaceTile(x, y));
+    }
+
+    public int getDamageAt(float x, float y) {
+        return tileRegistry.getDamage(surfaceTile(x, y));
+    }
+
+    /**
+     * Re-read the tile definitions (dev hot reload): collision bits are
+     * rebuilt and tile textures reloaded on the next render.
+     */
+    public void reloadTileRegistry() {
+        tileRegistry = TileRegistry.load(TileRegistry.DEFINITION_FILE);
+        if (tiles != null) {
+            buildSolidMasks();
+        }
+        if (world != null) {
+            world.invalidateChunks();
+        }
+        unloadUnusedTextures();
     }
 
     public void toggleCollisionView() {
         showCollision = !showCollision;
     }
 
+    // Keep the chunks around an area loaded without rendering, for headless runs
+    public void updateStreaming(float viewX, float viewY, int viewWidth, int viewHeight) {
+        if (world != null) {
+            world.update(viewX, viewY, viewWidth, viewHeight);
+        }
+    }
+
+    // Set by Spring from GameConfig; outside a context streaming stays off unless set here
+    public void setStreamingMapThresholdBytes(Long streamingMapThresholdBytes) {
+        this.streamingMapThresholdBytes = streamingMapThresholdBytes;
+    }
+
     // Getters
+    // Whether tiles come from a ChunkedWorld, which must only be read from one thread
+    public boolean isStreamed() {
+        return world != null;
+    }
+
+    public EntityWorld getEntities() {
+        return entities;
+    }
+
+    public int getCurrentLayer() {
+        return currentLayer;
+    }
+
+    public String getCurrentMapFile() {
+        return currentMapFile;
+    }
+
     public int getTileSize() {
         return TILE_SIZE;
     }
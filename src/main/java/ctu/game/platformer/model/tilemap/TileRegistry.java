@@ -0,0 +1,172 @@
+package ctu.game.platformer.model.tilemap;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import ctu.game.platformer.util.DevResources;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tile semantics from maps/tiles.json, compiled into flat tables indexed by
+ * tile id (0-255, the byte stored in the map) so per-tile lookups in the
+ * collision and render loops are array reads.
+ *
+ * Each entry has an id and optionally: name, texture, solid, friction
+ * (1 = full grip, lower slides), damage, uv [u0, v0, u1, v1] into the
+ * texture, frames and frameMs for animations laid out left to right in the
+ * texture, and a fallback color [r, g, b]. Id 0 is always empty.
+ */
+public class TileRegistry {
+    public static final String DEFINITION_FILE = "maps/tiles.json";
+    public static final int MAX_TILES = 256;
+
+    private final boolean[] solid = new boolean[MAX_TILES];
+    private final float[] friction = new float[MAX_TILES];
+    private final int[] damage = new int[MAX_TILES];
+    private final float[] uv = new float[MAX_TILES * 4];
+    private final int[] frameCount = new int[MAX_TILES];
+    private final int[] frameMillis = new int[MAX_TILES];
+    private final float[] color = new float[MAX_TILES * 3];
+    private final String[] texture = new String[MAX_TILES];
+    private final String[] name = new String[MAX_TILES];
+
+    private TileRegistry() {
+        for (int id = 0; id < MAX_TILES; id++) {
+            friction[id] = 1.0f;
+            uv[id * 4 + 2] = 1.0f;
+            uv[id * 4 + 3] = 1.0f;
+            frameCount[id] = 1;
+            color[id * 3] = 1.0f;
+            color[id * 3 + 1] = 1.0f;
+            color[id * 3 + 2] = 1.0f;
+        }
+    }
+
+    /**
+     * Load the definitions, or an empty registry (nothing solid, no
+     * textures) if the file is missing or invalid.
+     */
+    public static TileRegistry load(String resourcePath) {
+        try (InputStream is = DevResources.open(resourcePath)) {
+            if (is == null) {
+                System.err.println("Tile definitions not found: " + resourcePath);
+                return new TileRegistry();
+            }
+            return read(is);
+        } catch (Exception e) {
+            System.err.println("Error loading tile definitions " + resourcePath + ": " + e.getMessage());
+            e.printStackTrace();
+            return new TileRegistry();
+        }
+    }
+
+    // Parse definitions, failing on invalid JSON instead of falling back
+    public static TileRegistry read(InputStream is) {
+        TileRegistry registry = new TileRegistry();
+        JsonObject root = new Gson().fromJson(new InputStreamReader(is), JsonObject.class);
+        JsonArray tiles = root.getAsJsonArray("tiles");
+        for (JsonElement element : tiles) {
+            registry.define(element.getAsJsonObject());
+        }
+        return registry;
+    }
+
+    private void define(JsonObject tile) {
+        int id = tile.get("id").getAsInt();
+        if (id <= 0 || id >= MAX_TILES) {
+            System.err.println("Ignoring tile definition with id " + id + ", ids are 1-" + (MAX_TILES - 1));
+            return;
+        }
+
+        name[id] = tile.has("name") ? tile.get("name").getAsString() : "tile" + id;
+        texture[id] = tile.has("texture") ? tile.get("texture").getAsString() : null;
+        solid[id] = tile.has("solid") && tile.get("solid").getAsBoolean();
+        if (tile.has("friction")) friction[id] = tile.get("friction").getAsFloat();
+        if (tile.has("damage")) damage[id] = tile.get("damage").getAsInt();
+        if (tile.has("frames")) frameCount[id] = Math.max(1, tile.get("frames").getAsInt());
+        if (tile.has("frameMs")) frameMillis[id] = Math.max(0, tile.get("frameMs").getAsInt());
+
+        if (tile.has("uv")) {
+            JsonArray rect = tile.getAsJsonArray("uv");
+            for (int i = 0; i < 4; i++) {
+                uv[id * 4 + i] = rect.get(i).getAsFloat();
+            }
+        }
+        if (tile.has("color")) {
+            JsonArray rgb = tile.getAsJsonArray("color");
+            for (int i = 0; i < 3; i++) {
+                color[id * 3 + i] = rgb.get(i).getAsFloat();
+            }
+        }
+    }
+
+    public boolean isSolid(int id) {
+        return solid[id & 0xFF];
+    }
+
+    public float getFriction(int id) {
+        return friction[id & 0xFF];
+    }
+
+    public int getDamage(int id) {
+        return damage[id & 0xFF];
+    }
+
+    public String getTexture(int id) {
+        return texture[id & 0xFF];
+    }
+
+    public String getName(int id) {
+        return name[id & 0xFF];
+    }
+
+    // Texture path per defined tile id that has one
+    public Map<Integer, String> getTextures() {
+        Map<Integer, String> textures = new LinkedHashMap<>();
+        for (int id = 1; id < MAX_TILES; id++) {
+            if (texture[id] != null) {
+                textures.put(id, texture[id]);
+            }
+        }
+        return textures;
+    }
+
+    /**
+     * Texture rectangle of a tile at a point in time, written to out as
+     * u0, v0, u1, v1. Animated tiles step right by one frame width.
+     */
+    public void getFrameUV(int id, long timeMillis, float[] out) {
+        int index = id & 0xFF;
+        int base = index * 4;
+        float u0 = uv[base];
+        float u1 = uv[base + 2];
+
+        int frame = 0;
+        if (frameCount[index] > 1 && frameMillis[index] > 0) {
+            frame = (int) ((timeMillis / frameMillis[index]) % frameCount[index]);
+        }
+        float shift = frame * (u1 - u0);
+
+        out[0] = u0 + shift;
+        out[1] = uv[base + 1];
+        out[2] = u1 + shift;
+        out[3] = uv[base + 3];
+    }
+
+    public float getRed(int id) {
+        return color[(id & 0xFF) * 3];
+    }
+
+    public float getGreen(int id) {
+        return color[(id & 0xFF) * 3 + 1];
+    }
+
+    public float getBlue(int id) {
+        return color[(id & 0xFF) * 3 + 2];
+    }
+}
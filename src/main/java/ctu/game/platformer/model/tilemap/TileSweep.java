@@ -0,0 +1,244 @@
+package ctu.game.platformer.model.tilemap;
+
+import ctu.game.platformer.model.common.FixedPoint;
+
+/**
+ * Moves the player's hitbox through a TileMap one axis at a time, testing
+ * only the tile columns (or rows) its leading edges cross instead of stepping
+ * a pixel at a time. A blocked box ends flush against the tile it hit and
+ * {@link #getNormal} tells which side that was.
+ *
+ * The hitbox is the footprint the old 12-point probes had: a box with its
+ * corners cut, full width over the middle half of its height and INSET
+ * narrower on each side over the full height, so corners slide past tile
+ * corners. Edges are inclusive, as TileMap.isSolid sees points: an edge
+ * lying exactly on a solid tile's border overlaps it.
+ *
+ * The *Fixed methods do the same in FixedPoint units for the deterministic
+ * simulation mode, in integer arithmetic only.
+ */
+public class TileSweep {
+    public static final float INSET = 2.0f;
+    private static final int TILE_SIZE = TileMap.TILE_SIZE;
+    private static final int FIXED_INSET = 2 * FixedPoint.ONE;
+    private static final int FIXED_TILE_SIZE = TILE_SIZE * FixedPoint.ONE;
+
+    private final TileMap tileMap;
+
+    // Layer whose tiles block, or -1 for the map's current layer (the player's)
+    private int layer = -1;
+
+    // Side the last sweep was stopped by: -1 blocked moving towards +x/+y, 1 towards -x/-y, 0 free
+    private int normal;
+
+    public TileSweep(TileMap tileMap) {
+        this.tileMap = tileMap;
+    }
+
+    public void setLayer(int layer) {
+        this.layer = layer;
+    }
+
+    // New left edge after moving dx, or the last free position before a wall
+    public float sweepX(float x, float y, float width, float height, float dx) {
+        normal = 0;
+        if (dx == 0) return x;
+
+        float target = x + dx;
+        target = sweepX(x, target, 0, width, y + height / 4, y + height * 3 / 4);
+        return sweepX(x, target, INSET, width - INSET, y, y + height);
+    }
+
+    // New top edge after moving dy; normal -1 means it landed on something
+    public float sweepY(float x, float y, float width, float height, float dy) {
+        normal = 0;
+        if (dy == 0) return y;
+
+        float target = y + dy;
+        target = sweepY(y, target, height / 4, height * 3 / 4, x, x + width);
+        return sweepY(y, target, 0, height, x + INSET, x + width - INSET);
+    }
+
+    // One rectangle of the hitbox, spanning left..right from x and top..bottom in world space
+    private float sweepX(float x, float target, float left, float right, float top, float bottom) {
+        int firstRow = tile(top);
+        int lastRow = tile(bottom);
+        if (target > x) {
+            int last = tile(target + right);
+            for (int column = tile(x + right) + 1; column <= last; column++) {
+                if (columnSolid(column, firstRow, lastRow)) {
+                    normal = -1;
+                    return before(x, right, column * TILE_SIZE);
+                }
+            }
+        } else {
+            int last = tile(target + left);
+            for (int column = tile(x + left) - 1; column >= last; column--) {
+                if (columnSolid(column, firstRow, lastRow)) {
+                    normal = 1;
+                    return after(x, left, (column + 1) * TILE_SIZE);
+                }
+            }
+        }
+        return target;
+    }
+
+    private float sweepY(float y, float target, float top, float bottom, float left, float right) {
+        int firstColumn = tile(left);
+        int lastColumn = tile(right);
+        if (target > y) {
+            int last = tile(target + bottom);
+            for (int row = tile(y + bottom) + 1; row <= last; row++) {
+                if (rowSolid(row, firstColumn, lastColumn)) {
+                    normal = -1;
+                    return before(y, bottom, row * TILE_SIZE);
+                }
+            }
+        } else {
+            int last = tile(target + top);
+            for (int row = tile(y + top) - 1; row >= last; row--) {
+                if (rowSolid(row, firstColumn, lastColumn)) {
+                    normal = 1;
+                    return after(y, top, (row + 1) * TILE_SIZE);
+                }
+            }
+        }
+        return target;
+    }
+
+    public int sweepFixedX(int x, int y, int width, int height, int dx) {
+        normal = 0;
+        if (dx == 0) return x;
+
+        int target = x + dx;
+        target = sweepFixedX(x, target, 0, width, y + height / 4, y + height * 3 / 4);
+        return sweepFixedX(x, target, FIXED_INSET, width - FIXED_INSET, y, y + height);
+    }
+
+    public int sweepFixedY(int x, int y, int width, int height, int dy) {
+        normal = 0;
+        if (dy == 0) return y;
+
+        int target = y + dy;
+        target = sweepFixedY(y, target, height / 4, height * 3 / 4, x, x + width);
+        return sweepFixedY(y, target, 0, height, x + FIXED_INSET, x + width - FIXED_INSET);
+    }
+
+    private int sweepFixedX(int x, int target, int left, int right, int top, int bottom) {
+        int firstRow = fixedTile(top);
+        int lastRow = fixedTile(bottom);
+        if (target > x) {
+            int last = fixedTile(target + right);
+            for (int column = fixedTile(x + right) + 1; column <= last; column++) {
+                if (columnSolid(column, firstRow, lastRow)) {
+                    normal = -1;
+                    return Math.max(x, column * FIXED_TILE_SIZE - right - 1);
+                }
+            }
+        } else {
+            int last = fixedTile(target + left);
+            for (int column = fixedTile(x + left) - 1; column >= last; column--) {
+                if (columnSolid(column, firstRow, lastRow)) {
+                    normal = 1;
+                    return Math.min(x, (column + 1) * FIXED_TILE_SIZE - left);
+                }
+            }
+        }
+        return target;
+    }
+
+    private int sweepFixedY(int y, int target, int top, int bottom, int left, int right) {
+        int firstColumn = fixedTile(left);
+        int lastColumn = fixedTile(right);
+        if (target > y) {
+            int last = fixedTile(target + bottom);
+            for (int row = fixedTile(y + bottom) + 1; row <= last; row++) {
+                if (rowSolid(row, firstColumn, lastColumn)) {
+                    normal = -1;
+                    return Math.max(y, row * FIXED_TILE_SIZE - bottom - 1);
+                }
+            }
+        } else {
+            int last = fixedTile(target + top);
+            for (int row = fixedTile(y + top) - 1; row >= last; row--) {
+                if (rowSolid(row, firstColumn, lastColumn)) {
+                    normal = 1;
+                    return Math.min(y, (row + 1) * FIXED_TILE_SIZE - top);
+                }
+            }
+        }
+        return target;
+    }
+
+    public int getNormal() {
+        return normal;
+    }
+
+    // Whether any tile the rectangle touches, edges included, is solid
+    public boolean overlapsSolid(float minX, float minY, float maxX, float maxY) {
+        int left = tile(minX);
+        int right = tile(maxX);
+        for (int row = tile(minY), bottom = tile(maxY); row <= bottom; row++) {
+            if (rowSolid(row, left, right)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean overlapsSolidFixed(int minX, int minY, int maxX, int maxY) {
+        int left = fixedTile(minX);
+        int right = fixedTile(maxX);
+        for (int row = fixedTile(minY), bottom = fixedTile(maxY); row <= bottom; row++) {
+            if (rowSolid(row, left, right)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean columnSolid(int column, int top, int bottom) {
+        for (int row = top; row <= bottom; row++) {
+            if (solid(column, row)) return true;
+        }
+        return false;
+    }
+
+    private boolean rowSolid(int row, int left, int right) {
+        for (int column = left; column <= right; column++) {
+            if (solid(column, row)) return true;
+        }
+        return false;
+    }
+
+    private boolean solid(int column, int row) {
+        return layer < 0 ? tileMap.isSolidTile(column, row) : tileMap.isSolidTile(layer, column, row);
+    }
+
+    // Furthest position whose edge (position + offset) stays short of the border, so it reads as free
+    private static float before(float start, float offset, float border) {
+        float result = border - offset;
+        while (result + offset >= border) {
+            result = Math.nextDown(result);
+        }
+        return Math.max(start, result);
+    }
+
+    // Furthest position whose edge is still on the border, the first free tile
+    private static float after(float start, float offset, float border) {
+        float result = border - offset;
+        while (result + offset < border) {
+            result = Math.nextUp(result);
+        }
+        return Math.min(start, result);
+    }
+
+    // Same truncation as TileMap.isSolid
+    private static int tile(float coordinate) {
+        return (int) (coordinate / TILE_SIZE);
+    }
+
+    private static int fixedTile(int coordinate) {
+        return coordinate / FIXED_TILE_SIZE;
+    }
+}
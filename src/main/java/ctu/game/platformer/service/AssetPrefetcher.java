@@ -0,0 +1,172 @@
+package ctu.game.platformer.service;
+
+import ctu.game.platformer.model.level.LevelData;
+import ctu.game.platformer.model.level.LevelManager;
+import ctu.game.platformer.model.level.TransitionPoint;
+import ctu.game.platformer.model.tilemap.MapLoader;
+import ctu.game.platformer.model.tilemap.TextureManager;
+import ctu.game.platformer.model.visualnovel.Choice;
+import ctu.game.platformer.model.visualnovel.Dialog;
+import ctu.game.platformer.model.visualnovel.Scene;
+import ctu.game.platformer.util.DevResources;
+import ctu.game.platformer.util.MusicDirector;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+/**
+ * Warms the assets of whatever can come next. Level transitions and scene
+ * choices form a graph; from the current node we walk up to PREFETCH_DEPTH
+ * hops and parse maps / decode images on worker threads, so arriving at the
+ * next level or scene only has to upload what is already in memory.
+ */
+@Service
+public class AssetPrefetcher {
+    private static final int PREFETCH_DEPTH = 2;
+    private static final int WORKER_THREADS = 2;
+
+    private static final String LEVEL_BACKGROUND_PATH = "assets/images/";
+    private static final String SCENE_BACKGROUND_PATH = "assets/images/visualnovel/backgrounds/";
+    private static final String CHARACTER_PATH = "assets/images/visualnovel/characters/";
+
+    @Autowired
+    private LevelManager levelManager;
+
+    @Autowired
+    private MusicDirector musicDirector;
+
+    @Autowired(required = false)
+    private Long prefetchBudgetBytes;
+
+    private ExecutorService executor;
+    private final Set<String> pendingTextures = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    private void init() {
+        executor = Executors.newFixedThreadPool(WORKER_THREADS, r -> {
+            Thread thread = new Thread(r, "Asset-Prefetch");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+
+        if (prefetchBudgetBytes != null) {
+            TextureManager.setPrefetchBudgetBytes(prefetchBudgetBytes);
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Prefetch maps and backgrounds of the levels reachable from levelId.
+     */
+    public void prefetchFromLevel(String levelId) {
+        Set<String> visited = new HashSet<>();
+        visited.add(levelId);
+        List<String> frontier = List.of(levelId);
+
+        for (int depth = 0; depth < PREFETCH_DEPTH && !frontier.isEmpty(); depth++) {
+            List<String> next = new ArrayList<>();
+            for (String id : frontier) {
+                LevelData level = levelManager.getLevelData(id);
+                if (level == null) continue;
+
+                for (TransitionPoint tp : level.getTransitions().values()) {
+                    String target = tp.getTargetLevel();
+                    if (visited.add(target)) {
+                        next.add(target);
+                    }
+                }
+            }
+
+            // Nearer levels are queued first
+            for (String id : next) {
+                LevelData level = levelManager.getLevelData(id);
+                if (level == null) continue;
+
+                MapLoader.prefetch(level.getMapFile(), executor);
+                if (level.getBackgroundFilename() != null) {
+                    prefetchTexture(LEVEL_BACKGROUND_PATH + level.getBackgroundFilename());
+                }
+            }
+            frontier = next;
+        }
+    }
+
+    /**
+     * Prefetch backgrounds and character sprites of the scenes reachable from
+     * scene through its choices, and open the music of the next scenes.
+     */
+    public void prefetchFromScene(Scene scene, Function<String, Scene> sceneLookup) {
+        Set<String> visited = new HashSet<>();
+        visited.add(scene.getId());
+        List<Scene> frontier = List.of(scene);
+
+        for (int depth = 0; depth < PREFETCH_DEPTH && !frontier.isEmpty(); depth++) {
+            List<Scene> next = new ArrayList<>();
+            for (Scene from : frontier) {
+                if (from.getChoices() == null) continue;
+
+                for (Choice choice : from.getChoices()) {
+                    Scene target = sceneLookup.apply(choice.getNextScene());
+                    if (target != null && visited.add(target.getId())) {
+                        next.add(target);
+                    }
+                }
+            }
+
+            for (Scene target : next) {
+                // Music streams are opened one hop ahead only, they hold decoder state
+                if (depth == 0) {
+                    musicDirector.prepare(target.getMusic());
+                }
+
+                if (target.getBackground() != null) {
+                    prefetchTexture(SCENE_BACKGROUND_PATH + target.getBackground());
+                }
+                if (target.getDialogues() != null) {
+                    for (Dialog dialog : target.getDialogues()) {
+                        if (dialog.getCharacterImage() != null) {
+                            prefetchTexture(CHARACTER_PATH + dialog.getCharacterImage());
+                        }
+                    }
+                }
+            }
+            frontier = next;
+        }
+    }
+
+    private void prefetchTexture(String path) {
+        if (TextureManager.isCached(path) || TextureManager.isStaged(path)) {
+            return;
+        }
+
+        // Nothing to warm for assets that don't exist
+        if (!DevResources.exists(path)) {
+            return;
+        }
+
+        if (pendingTextures.add(path)) {
+            executor.execute(() -> {
+                try {
+                    TextureManager.prefetch(path);
+                } finally {
+                    pendingTextures.remove(path);
+                }
+            });
+        }
+    }
+}
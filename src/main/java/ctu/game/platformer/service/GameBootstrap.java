@@ -0,0 +1,129 @@
+package ctu.game.platformer.service;
+
+import ctu.game.platformer.model.tilemap.TileMap;
+import ctu.game.platformer.util.FontRenderer;
+import ctu.game.platformer.util.ResourceLoader;
+import ctu.game.platformer.util.StartupTracer;
+import ctu.game.platformer.util.TextRendererUtil;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the independent startup loads (levels, story, audio, font bakes,
+ * texture decodes) concurrently on a worker pool while the game thread sets
+ * up the window and shows the loading screen. GL uploads stay lazy on the
+ * game thread and only consume what the workers prepared.
+ */
+@Service
+public class GameBootstrap {
+    private static final int WORKER_THREADS = 4;
+
+    @Autowired
+    private PlatformerSystem platformerSystem;
+
+    @Autowired
+    private VisualNovelSystem visualNovelSystem;
+
+    @Autowired
+    private TileMap tileMap;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    private final List<String> phaseNames = new ArrayList<>();
+    private final Map<String, Long> phaseMillis = new ConcurrentHashMap<>();
+    private final AtomicInteger completedPhases = new AtomicInteger();
+    private CompletableFuture<Void> allPhases;
+    private ExecutorService executor;
+    private long startNanos;
+    private volatile long wallMillis = -1;
+
+    public synchronized void start() {
+        if (allPhases != null) return;
+
+        executor = Executors.newFixedThreadPool(WORKER_THREADS, r -> {
+            Thread thread = new Thread(r, "Bootstrap-Worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        startNanos = System.nanoTime();
+
+        CompletableFuture<Void> levels = phase("levels", platformerSystem::loadLevels, null);
+        allPhases = CompletableFuture.allOf(
+                levels,
+                phase("story", visualNovelSystem::loadStory, null),
+                phase("audio", platformerSystem::initAudio, null),
+                phase("fonts", () -> {
+                    FontRenderer.prebake(FontRenderer.DEFAULT_FONT, FontRenderer.DEFAULT_FONT_SIZE);
+                    TextRendererUtil.prebake();
+                }, null),
+                phase("menu textures", () -> resourceLoader.prefetchImage("background.png"), null),
+                // The level background is known once the level config is in
+                phase("level textures", tileMap::prefetchTextures, levels)
+        ).whenComplete((v, e) -> {
+            wallMillis = (System.nanoTime() - startNanos) / 1_000_000;
+            executor.shutdown();
+        });
+    }
+
+    // Run a timed phase on the pool, optionally after another phase finished
+    private CompletableFuture<Void> phase(String name, Runnable task, CompletableFuture<Void> after) {
+        synchronized (phaseNames) {
+            phaseNames.add(name);
+        }
+
+        Runnable timed = () -> {
+            long phaseStart = System.nanoTime();
+            try {
+                task.run();
+            } catch (Exception e) {
+                System.err.println("Bootstrap phase '" + name + "' failed: " + e.getMessage());
+                e.printStackTrace();
+            }
+            long phaseEnd = System.nanoTime();
+            StartupTracer.record("bootstrap " + name, "bootstrap", phaseStart, phaseEnd);
+            phaseMillis.put(name, (phaseEnd - phaseStart) / 1_000_000);
+            completedPhases.incrementAndGet();
+        };
+
+        return after == null
+                ? CompletableFuture.runAsync(timed, executor)
+                : after.thenRunAsync(timed, executor);
+    }
+
+    public boolean isComplete() {
+        return allPhases != null && allPhases.isDone();
+    }
+
+    public float getProgress() {
+        synchronized (phaseNames) {
+            if (phaseNames.isEmpty()) return 0;
+            return completedPhases.get() / (float) phaseNames.size();
+        }
+    }
+
+    public void report() {
+        StringBuilder sb = new StringBuilder("Bootstrap finished in ").append(wallMillis).append("ms (");
+        synchronized (phaseNames) {
+            for (int i = 0; i < phaseNames.size(); i++) {
+                String name = phaseNames.get(i);
+                if (i > 0) sb.append(", ");
+                sb.append(name).append(' ').append(phaseMillis.getOrDefault(name, -1L)).append("ms");
+            }
+        }
+        sb.append("), interactive ")
+                .append(ManagementFactory.getRuntimeMXBean().getUptime())
+                .append("ms after JVM start");
+        System.out.println(sb);
+    }
+}
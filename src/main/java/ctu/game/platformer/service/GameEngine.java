@@ -10,6 +10,8 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import ctu.game.platformer.controller.InputController;
+import ctu.game.platformer.model.common.GameState;
+import ctu.game.platformer.util.StartupTracer;
 
 @Service
 public class GameEngine {
@@ -23,9 +25,17 @@ public class GameEngine {
     private final String windowTitle;
     private final boolean vSync;
 
+    @Autowired
+    private HotReloadService hotReloadService;
+
+    @Autowired
+    private GameBootstrap gameBootstrap;
+
     private long window;
     private boolean running = false;
     private double lastTime;
+    private boolean firstFrameRendered = false;
+    private boolean firstHomeFrameRendered = false;
 
     @Autowired
     public GameEngine(@Lazy GameStateManager gameStateManager, InputController inputController,
@@ -40,17 +50,29 @@ public class GameEngine {
         this.vSync = vSync;
     }
 
+    @SuppressWarnings("try")
     public void start() {
-        init();
+        // Asset loading runs on workers while the window and GL context come up
+        gameBootstrap.start();
+        try (StartupTracer.Span ignored = StartupTracer.begin("GameEngine.init", "gl")) {
+            init();
+        }
         loop();
         cleanup();
+
+        if (StartupTracer.isBenchmark()) {
+            System.exit(0);
+        }
     }
 
+    @SuppressWarnings("try")
     private void init() {
         GLFWErrorCallback.createPrint(System.err).set();
 
-        if (!GLFW.glfwInit()) {
-            throw new IllegalStateException("Unable to initialize GLFW");
+        try (StartupTracer.Span ignored = StartupTracer.begin("glfwInit", "gl")) {
+            if (!GLFW.glfwInit()) {
+                throw new IllegalStateException("Unable to initialize GLFW");
+            }
         }
 
         // 1. Thiết lập window hints TRƯỚC khi tạo window
@@ -59,7 +81,9 @@ public class GameEngine {
         GLFW.glfwWindowHint(GLFW.GLFW_RESIZABLE, GLFW.GLFW_TRUE);
 
         // 2. Tạo window
-        window = GLFW.glfwCreateWindow(windowWidth, windowHeight, windowTitle, MemoryUtil.NULL, MemoryUtil.NULL);
+        try (StartupTracer.Span ignored = StartupTracer.begin("glfwCreateWindow", "gl")) {
+            window = GLFW.glfwCreateWindow(windowWidth, windowHeight, windowTitle, MemoryUtil.NULL, MemoryUtil.NULL);
+        }
         if (window == MemoryUtil.NULL) {
             throw new RuntimeException("Failed to create the GLFW window");
         }
@@ -90,7 +114,9 @@ public class GameEngine {
         GLFW.glfwShowWindow(window);
 
         // 7. Khởi tạo OpenGL
-        GL.createCapabilities();
+        try (StartupTracer.Span ignored = StartupTracer.begin("GL.createCapabilities", "gl")) {
+            GL.createCapabilities();
+        }
         GL11.glClearColor(0.2f, 0.3f, 0.3f, 1.0f);
 
         // 8. Thiết lập OpenGL
@@ -146,6 +172,9 @@ public class GameEngine {
                 wasFocused = isFocused;
             }
 
+            // Dev mode: swap in edited assets between ticks
+            hotReloadService.applyPendingReloads();
+
             // Perform game logic updates at fixed UPDATE_RATE
             while (deltaUpdate >= 1) {
                 inputController.update();
@@ -158,11 +187,16 @@ public class GameEngine {
 
             // Render at TARGET_FPS rate
             if (deltaRender >= 1) {
+                GameState renderedState = gameStateManager.getCurrentState();
                 GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
                 gameStateManager.render();
                 GLFW.glfwSwapBuffers(window);
                 frames++;
                 deltaRender--;
+
+                if (!firstHomeFrameRendered) {
+                    markStartupFrame(renderedState);
+                }
             }
 
             // Log FPS and updates every second
@@ -189,6 +223,27 @@ public class GameEngine {
 
 
 
+    // Time-to-first-frame: the loading screen, then the first interactive home screen
+    private void markStartupFrame(GameState renderedState) {
+        if (!firstFrameRendered) {
+            firstFrameRendered = true;
+            StartupTracer.instant("first frame", "frame");
+            System.out.println("First frame after " + StartupTracer.millisSinceJvmStart() + "ms");
+        }
+
+        if (renderedState == GameState.HOME) {
+            firstHomeFrameRendered = true;
+            StartupTracer.instant("first home frame", "frame");
+            // Parsed by scripts/ttff-benchmark.sh, keep the format stable
+            System.out.println("Time to first frame: " + StartupTracer.millisSinceJvmStart() + "ms");
+            StartupTracer.finish();
+
+            if (StartupTracer.isBenchmark()) {
+                running = false;
+            }
+        }
+    }
+
     private void cleanup() {
         GLFW.glfwDestroyWindow(window);
         GLFW.glfwTerminate();
@@ -1,6 +1,7 @@
 package ctu.game.platformer.service;
 
 import ctu.game.platformer.controller.InputController;
+import ctu.game.platformer.util.MusicDirector;
 import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
@@ -10,7 +11,7 @@ import ctu.game.platformer.model.common.GameState;
 @Service
 public class GameStateManager implements InputController.KeyEventListener {
 
-    private GameState currentState = GameState.HOME;
+    private GameState currentState = GameState.LOADING;
 
     private GameState previousState = GameState.HOME;
 
@@ -26,21 +27,30 @@ public class GameStateManager implements InputController.KeyEventListener {
     @Autowired
     private VisualNovelSystem visualNovelSystem;
 
+    @Autowired
+    private LoadingSystem loadingSystem;
+
     @Autowired
     private InputController inputController;
 
+    @Autowired
+    private MusicDirector musicDirector;
+
     @PostConstruct
     private void init() {
         inputController.registerListener(this);
         pauseSystem.init();
     }
     public void pause() {
-        if (currentState != GameState.PAUSE && currentState != GameState.HOME) {
+        if (currentState != GameState.PAUSE && currentState != GameState.HOME && currentState != GameState.LOADING) {
             pauseSystem.pause(currentState);
         }
     }
     public void update() {
         switch (currentState) {
+            case LOADING:
+                loadingSystem.update();
+                break;
             case PLATFORM:
                 platformerSystem.update();
                 break;
@@ -61,6 +71,9 @@ public class GameStateManager implements InputController.KeyEventListener {
 
     public void render() {
         switch (currentState) {
+            case LOADING:
+                loadingSystem.render();
+                break;
             case PLATFORM:
                 platformerSystem.render();
                 break;
@@ -103,6 +116,13 @@ public class GameStateManager implements InputController.KeyEventListener {
     }
 
     public void switchState(GameState state) {
+        // States request their own music every tick, so the track of the state being left
+        // stops here; pausing and resuming the same state keeps it
+        GameState from = currentState == GameState.PAUSE ? previousState : currentState;
+        if (state != GameState.PAUSE && state != from) {
+            musicDirector.stop();
+        }
+
         if (currentState == GameState.PAUSE) {
             // When exiting pause state, don't update previousState
             currentState = state;
@@ -2,6 +2,7 @@ package ctu.game.platformer.service;
 
 import ctu.game.platformer.controller.InputController;
 import ctu.game.platformer.util.AudioManager;
+import ctu.game.platformer.util.MusicDirector;
 import ctu.game.platformer.util.ResourceLoader;
 import ctu.game.platformer.util.TextRendererUtil;
 import jakarta.annotation.PreDestroy;
@@ -29,6 +30,9 @@ public class HomeSystem implements InputController.MouseClickListener, InputCont
     @Autowired
     private AudioManager audioManager;
 
+    @Autowired
+    private MusicDirector musicDirector;
+
     private final GameStateManager gameStateManager;
     private final InputController inputController;
 
@@ -85,7 +89,7 @@ public class HomeSystem implements InputController.MouseClickListener, InputCont
             System.out.println("Releasing HomeSystem resources");
 
             // Stop audio
-            audioManager.stopBackgroundMusic();
+            musicDirector.stop();
 
             // Delete textures
             if (backgroundTextureId > 0) {
@@ -0,0 +1,187 @@
+package ctu.game.platformer.service;
+
+import ctu.game.platformer.model.tilemap.MapLoader;
+import ctu.game.platformer.model.tilemap.TextureManager;
+import ctu.game.platformer.model.tilemap.TileMap;
+import ctu.game.platformer.model.tilemap.TileRegistry;
+import ctu.game.platformer.util.DevResources;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Dev mode asset hot reload (-Dgame.dev.hotReload=true).
+ *
+ * A WatchService thread watches the resource source directory and records
+ * changed files. The game thread applies them between ticks, reloading only
+ * the affected asset: a texture is re-uploaded into its existing id, the
+ * current level's map is re-read, or the story is re-parsed and re-indexed.
+ * Player position and the current scene are left untouched.
+ */
+@Service
+public class HotReloadService {
+    // Editors write files in several steps, wait for them to settle
+    private static final long SETTLE_NANOS = 150_000_000L;
+
+    @Autowired
+    private boolean devHotReload;
+
+    @Autowired
+    private String devResourceRoot;
+
+    @Autowired
+    private TileMap tileMap;
+
+    @Autowired
+    private VisualNovelSystem visualNovelSystem;
+
+    private Path root;
+    private WatchService watchService;
+    private Thread watchThread;
+    private final Map<WatchKey, Path> watchedDirs = new ConcurrentHashMap<>();
+
+    // Changed resource path -> time of the last event
+    private final Map<String, Long> pendingChanges = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    private void init() {
+        if (!devHotReload) return;
+
+        root = Paths.get(devResourceRoot).toAbsolutePath().normalize();
+        if (!Files.isDirectory(root)) {
+            System.err.println("Hot reload disabled, resource root not found: " + root);
+            return;
+        }
+
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            registerTree(root);
+        } catch (IOException e) {
+            System.err.println("Hot reload disabled: " + e.getMessage());
+            return;
+        }
+
+        // Read assets from the source tree from now on
+        DevResources.setOverrideRoot(root);
+
+        watchThread = new Thread(this::watchLoop);
+        watchThread.setName("Hot-Reload-Watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+        System.out.println("Hot reload watching " + root);
+    }
+
+    private void registerTree(Path dir) throws IOException {
+        try (Stream<Path> dirs = Files.walk(dir)) {
+            for (Path d : (Iterable<Path>) dirs.filter(Files::isDirectory)::iterator) {
+                WatchKey key = d.register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                watchedDirs.put(key, d);
+            }
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                Path dir = watchedDirs.get(key);
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || dir == null) continue;
+
+                    Path changed = dir.resolve((Path) event.context());
+                    if (Files.isDirectory(changed)) {
+                        if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                            registerTree(changed);
+                        }
+                        continue;
+                    }
+
+                    String resourcePath = root.relativize(changed).toString().replace('\\', '/');
+                    pendingChanges.put(resourcePath, System.nanoTime());
+                }
+
+                if (!key.reset()) {
+                    watchedDirs.remove(key);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Shutting down
+        } catch (IOException e) {
+            System.err.println("Hot reload watcher stopped: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Apply settled changes. Must run on the game thread (GL context).
+     */
+    public void applyPendingReloads() {
+        if (pendingChanges.isEmpty()) return;
+
+        long now = System.nanoTime();
+        Iterator<Map.Entry<String, Long>> it = pendingChanges.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Long> entry = it.next();
+            if (now - entry.getValue() < SETTLE_NANOS) continue;
+
+            it.remove();
+            reload(entry.getKey());
+        }
+    }
+
+    private void reload(String resourcePath) {
+        String lower = resourcePath.toLowerCase();
+
+        if (lower.endsWith(".png")) {
+            if (TextureManager.reloadTexture(resourcePath)) {
+                System.out.println("Hot reload: texture " + resourcePath);
+            } else {
+                // Only textures held in the TextureManager cache can be swapped in place
+                System.out.println("Hot reload: texture " + resourcePath + " isn't loaded, picked up on its next load");
+            }
+        } else if (lower.startsWith("maps/") && (lower.endsWith(".csv") || lower.endsWith(".tmap"))) {
+            String filename = resourcePath.substring("maps/".length());
+            MapLoader.invalidate(filename);
+            if (filename.equals(tileMap.getCurrentMapFile())) {
+                tileMap.reloadMap();
+                System.out.println("Hot reload: map " + filename);
+            }
+        } else if (resourcePath.equals(TileRegistry.DEFINITION_FILE)) {
+            tileMap.reloadTileRegistry();
+            System.out.println("Hot reload: tile definitions " + resourcePath);
+        } else if (resourcePath.equals(VisualNovelSystem.STORY_FILE)) {
+            visualNovelSystem.reloadStory();
+            System.out.println("Hot reload: story " + resourcePath);
+        }
+    }
+
+    @PreDestroy
+    public void cleanup() {
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close watch service: " + e.getMessage());
+            }
+        }
+        DevResources.setOverrideRoot(null);
+    }
+}
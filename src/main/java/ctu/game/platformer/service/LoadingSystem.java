@@ -0,0 +1,65 @@
+package ctu.game.platformer.service;
+
+import ctu.game.platformer.model.common.GameState;
+import org.lwjgl.opengl.GL11;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+/**
+ * Splash/progress screen shown while GameBootstrap loads assets.
+ */
+@Service
+public class LoadingSystem {
+    private final GameStateManager gameStateManager;
+    private final GameBootstrap gameBootstrap;
+    private final int screenWidth;
+    private final int screenHeight;
+
+    @Autowired
+    public LoadingSystem(@Lazy GameStateManager gameStateManager, GameBootstrap gameBootstrap,
+                         @Autowired int windowWidth, @Autowired int windowHeight) {
+        this.gameStateManager = gameStateManager;
+        this.gameBootstrap = gameBootstrap;
+        this.screenWidth = windowWidth;
+        this.screenHeight = windowHeight;
+    }
+
+    public void update() {
+        if (gameBootstrap.isComplete()) {
+            gameBootstrap.report();
+            gameStateManager.switchState(GameState.HOME);
+        }
+    }
+
+    public void render() {
+        float barWidth = screenWidth * 0.6f;
+        float barHeight = 16;
+        float x = (screenWidth - barWidth) / 2;
+        float y = screenHeight * 0.65f;
+
+        GL11.glDisable(GL11.GL_TEXTURE_2D);
+
+        // Outline
+        GL11.glColor4f(0.8f, 0.8f, 0.8f, 1.0f);
+        GL11.glLineWidth(2.0f);
+        GL11.glBegin(GL11.GL_LINE_LOOP);
+        GL11.glVertex2f(x, y);
+        GL11.glVertex2f(x + barWidth, y);
+        GL11.glVertex2f(x + barWidth, y + barHeight);
+        GL11.glVertex2f(x, y + barHeight);
+        GL11.glEnd();
+
+        // Fill
+        float fill = barWidth * gameBootstrap.getProgress();
+        GL11.glColor4f(0.3f, 0.8f, 0.4f, 1.0f);
+        GL11.glBegin(GL11.GL_QUADS);
+        GL11.glVertex2f(x + 2, y + 2);
+        GL11.glVertex2f(x + Math.max(2, fill - 2), y + 2);
+        GL11.glVertex2f(x + Math.max(2, fill - 2), y + barHeight - 2);
+        GL11.glVertex2f(x + 2, y + barHeight - 2);
+        GL11.glEnd();
+
+        GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
+    }
+}
@@ -2,12 +2,17 @@ package ctu.game.platformer.service;
 
 import ctu.game.platformer.controller.InputController;
 import ctu.game.platformer.model.common.GameState;
+import ctu.game.platformer.model.ecs.EnemyAiSystem;
+import ctu.game.platformer.model.ecs.MotionSystem;
+import ctu.game.platformer.model.ecs.SystemScheduler;
 import ctu.game.platformer.model.level.LevelData;
 import ctu.game.platformer.model.level.LevelManager;
 import ctu.game.platformer.model.level.TransitionPoint;
+import ctu.game.platformer.model.level.TransitionIndex;
 import ctu.game.platformer.model.platformer.Player;
 import ctu.game.platformer.model.tilemap.TileMap;
 import ctu.game.platformer.util.AudioManager;
+import ctu.game.platformer.util.MusicDirector;
 import jakarta.annotation.PostConstruct;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.opengl.GL11;
@@ -15,17 +20,41 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
+import java.util.concurrent.CompletableFuture;
+
 @Service
 public class PlatformerSystem {
     private final GameStateManager gameStateManager;
     private final InputController inputController;
     private final Player player;
     private final TileMap tileMap;
+    private final EnemyAiSystem enemyAi;
+    private final SystemScheduler entitySystems;
     private final int screenWidth;
     private final int screenHeight;
 
-    private int playerWidth = 32;
-    private int playerHeight = 42;
+    private int playerWidth = Player.WIDTH;
+    private int playerHeight = Player.HEIGHT;
+
+    private static final String PLATFORM_MUSIC = "loop56.wav";
+
+    // Fade to black over ~15 ticks while the next level loads, then back
+    private static final float FADE_STEP = 1.0f / 15;
+
+    // Transition triggers of the current level, rebuilt when the level changes
+    private TransitionIndex transitionIndex;
+    private String transitionIndexLevelId;
+    // Trigger whose level failed to load; ignored until the player steps out of it
+    private TransitionPoint failedTransition;
+
+    // Level transition in progress: loading on the level loader thread
+    private CompletableFuture<TileMap> pendingLevel = null;
+    private String pendingLevelId = null;
+    private TransitionPoint pendingTransition = null;
+    private long transitionStartNanos;
+    private long transitionSwapNanos;
+    private boolean measureTransitionFrame = false;
+    private float fadeAlpha = 0;
 
 
 
@@ -35,6 +64,15 @@ public class PlatformerSystem {
     @Autowired
     private LevelManager levelManager;
 
+    @Autowired
+    private MusicDirector musicDirector;
+
+    @Autowired
+    private AssetPrefetcher assetPrefetcher;
+
+    @Autowired
+    private boolean deterministicSimulation;
+
     @Autowired
     public PlatformerSystem(
             @Lazy GameStateManager gameStateManager,
@@ -48,50 +86,114 @@ public class PlatformerSystem {
         this.screenHeight = windowHeight;
         this.tileMap = tileMap != null ? tileMap : new TileMap();
         this.player = new Player(100, 100, playerWidth, playerHeight);
+        this.enemyAi = new EnemyAiSystem(this.tileMap);
+        this.entitySystems = new SystemScheduler().add(enemyAi).add(new MotionSystem(this.tileMap));
 
         this.player.setTileMap(this.tileMap);
     }
 
     @PostConstruct
     private void init() {
-        // Load the map
+        // Register input listener
+        inputController.registerListener(this::handleInput);
+        player.setDeterministic(deterministicSimulation);
+    }
+
+    // Bootstrap phase: level config and first map, no GL needed
+    public void loadLevels() {
         levelManager.initialize();
         float[] startPos = levelManager.getPlayerStartPosition();
         player.setPosition(startPos[0], startPos[1]);
+        assetPrefetcher.prefetchFromLevel(levelManager.getCurrentLevelId());
+    }
 
-        // Register input listener
-
-        inputController.registerListener(this::handleInput);
+    // Bootstrap phase: open the audio device and the platform music stream
+    public void initAudio() {
         audioManager.initialize();
-        audioManager.loadBackgroundMusic("loop56.wav");
-
+        musicDirector.prepare(PLATFORM_MUSIC);
     }
 
     public void update() {
+        // Crossfades in on the audio thread; no-op once it is the current track
+        musicDirector.play(PLATFORM_MUSIC);
+
+        // While the next level loads the world holds still under the fade
+        if (pendingLevel != null) {
+            fadeAlpha = Math.min(1, fadeAlpha + FADE_STEP);
+            // Deterministic mode swaps on the tick the fade completes, waiting for the load if needed,
+            // so the swap tick doesn't depend on how fast the loader thread was
+            if (fadeAlpha >= 1 && (deterministicSimulation || pendingLevel.isDone())) {
+                finishLevelTransition();
+            }
+            return;
+        }
+        fadeAlpha = Math.max(0, fadeAlpha - FADE_STEP);
+
+        // Tile edits queued since the last tick land before anything reads the map
+        tileMap.applyTileEdits();
+
         // Update player
         player.update();
+        enemyAi.setTarget(player.getX(), player.getY(), playerWidth, playerHeight, tileMap.getCurrentLayer());
+        entitySystems.tick(tileMap.getEntities());
         checkLevelTransitions();
         tileMap.checkPlayerPosition(player.getX(), player.getY());
     }
     private void checkLevelTransitions() {
         String currentLevelId = levelManager.getCurrentLevelId();
-        float playerX = player.getX();
-        float playerY = player.getY();
+        if (transitionIndex == null || !currentLevelId.equals(transitionIndexLevelId)) {
+            // Built once per level, the per-tick check only looks at the player's cell
+            LevelData currentLevel = levelManager.getLevelData(currentLevelId);
+            transitionIndex = new TransitionIndex(currentLevel, TileMap.TILE_SIZE, playerWidth, playerHeight);
+            transitionIndexLevelId = currentLevelId;
+            failedTransition = null;
+        }
 
-        LevelData currentLevel = levelManager.getLevelData(currentLevelId);
-        for (TransitionPoint tp : currentLevel.getTransitions().values()) {
-            if (Math.abs(playerX - tp.getX()) < playerWidth && Math.abs(playerY - tp.getY()) < playerHeight) {
+        TransitionPoint tp = transitionIndex.find(player.getX(), player.getY());
+        if (tp != failedTransition) {
+            failedTransition = null;
+        }
+        if (tp != null && tp != failedTransition) {
+            // Load off the game thread, swap in at a tick boundary once ready
+            pendingTransition = tp;
+            pendingLevelId = tp.getTargetLevel();
+            pendingLevel = levelManager.loadLevelAsync(pendingLevelId);
+            transitionStartNanos = System.nanoTime();
+        }
+    }
 
-                levelManager.loadLevel(tp.getTargetLevel());
+    private void finishLevelTransition() {
+        TileMap staged = pendingLevel.join();
+        String levelId = pendingLevelId;
+        TransitionPoint transition = pendingTransition;
+        pendingLevel = null;
+        pendingLevelId = null;
+        pendingTransition = null;
 
-                float[] startPos = levelManager.getPlayerStartPosition();
-                player.setPosition(startPos[0], startPos[1]);
-                break;
-            }
+        if (staged == null) {
+            // Stay in the current level; the fade clears on the next ticks. The player is
+            // still standing in the trigger, so don't retry it until they walk out
+            failedTransition = transition;
+            System.err.println("Level transition to " + levelId + " failed, staying in " +
+                    levelManager.getCurrentLevelId());
+            return;
         }
+
+        long swapStart = System.nanoTime();
+        levelManager.commitLevel(levelId, staged);
+        float[] startPos = levelManager.getPlayerStartPosition();
+        player.setPosition(startPos[0], startPos[1]);
+        transitionSwapNanos = System.nanoTime() - swapStart;
+
+        System.out.println("Level transition to " + levelId + ": ready after " +
+                (swapStart - transitionStartNanos) / 1_000_000 + "ms (load runs behind the fade), swap " +
+                transitionSwapNanos / 1000 + "us");
+        measureTransitionFrame = true;
+        assetPrefetcher.prefetchFromLevel(levelId);
     }
 
     public void render() {
+        long frameStart = System.nanoTime();
         GL11.glPushMatrix();
 
         // Center the view on the player
@@ -110,6 +212,29 @@ public class PlatformerSystem {
         player.render();
 
         GL11.glPopMatrix();
+
+        renderFade();
+
+        // The first frame of a new level uploads its textures; that's the hitch left
+        if (measureTransitionFrame) {
+            measureTransitionFrame = false;
+            System.out.println("Level transition hitch: swap " + transitionSwapNanos / 1000 + "us + first frame " +
+                    (System.nanoTime() - frameStart) / 1000 + "us on the game thread");
+        }
+    }
+
+    private void renderFade() {
+        if (fadeAlpha <= 0) return;
+
+        GL11.glDisable(GL11.GL_TEXTURE_2D);
+        GL11.glColor4f(0.0f, 0.0f, 0.0f, fadeAlpha);
+        GL11.glBegin(GL11.GL_QUADS);
+        GL11.glVertex2f(0, 0);
+        GL11.glVertex2f(screenWidth, 0);
+        GL11.glVertex2f(screenWidth, screenHeight);
+        GL11.glVertex2f(0, screenHeight);
+        GL11.glEnd();
+        GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
     }
     public void handleInput(int key, int action) {
         // State change
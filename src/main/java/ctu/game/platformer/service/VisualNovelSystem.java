@@ -4,39 +4,53 @@ import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import ctu.game.platformer.controller.InputController;
 import ctu.game.platformer.model.common.GameState;
+import ctu.game.platformer.model.tilemap.TextureManager;
 import ctu.game.platformer.model.visualnovel.*;
 import ctu.game.platformer.util.AudioManager;
+import ctu.game.platformer.util.DevResources;
 import ctu.game.platformer.util.FontRenderer;
-import ctu.game.platformer.util.TextureLoader;
+import ctu.game.platformer.util.MusicDirector;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.opengl.GL11;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Service
 public class VisualNovelSystem {
+    public static final String STORY_FILE = "story/arc1.json";
+
     private final GameStateManager gameStateManager;
     private final InputController inputController;
     private final AudioManager audioManager;
+    private final MusicDirector musicDirector;
+
+    @Autowired
+    private AssetPrefetcher assetPrefetcher;
     private final int screenWidth;
     private final int screenHeight;
     private FontRenderer fontRenderer;
 
     private StoryData storyData;
+    // arc id -> scene id -> scene
+    private Map<String, Map<String, Scene>> sceneIndex = new HashMap<>();
     private String currentArcId = "chapter_01";
     private String currentSceneId = "scene_01";
     private int currentDialogueIndex = 0;
+    private String soundPlayedSceneId = null;
     private Map<String, Integer> textureIds = new HashMap<>();
+    private Map<String, String> uiTexturePaths = new HashMap<>();
+    private Set<String> missingBackgrounds = new HashSet<>();
     private Map<String, Boolean> inventory = new HashMap<>();
     private int playerSanity = 10;
 
@@ -55,30 +69,38 @@ public class VisualNovelSystem {
             @Lazy GameStateManager gameStateManager,
             InputController inputController,
             AudioManager audioManager,
+            MusicDirector musicDirector,
             @Autowired int windowWidth,
             @Autowired int windowHeight) {
         this.gameStateManager = gameStateManager;
         this.inputController = inputController;
         this.audioManager = audioManager;
+        this.musicDirector = musicDirector;
         this.screenWidth = windowWidth;
         this.screenHeight = windowHeight;
     }
 
     @PostConstruct
     private void init() {
-        loadStoryData();
         inputController.registerMouseClickListener(this::onMouseClick);
         inputController.registerMouseMoveListener(this::onMouseMove);
     }
 
+    // Bootstrap phase: parse the story on a worker thread
+    public void loadStory() {
+        loadStoryData();
+    }
+
     private void loadStoryData() {
-        try {
-            ClassPathResource resource = new ClassPathResource("story/arc1.json");
-            InputStream inputStream = resource.getInputStream();
+        try (InputStream inputStream = DevResources.open(STORY_FILE)) {
+            if (inputStream == null) {
+                throw new IOException("Cannot find " + STORY_FILE);
+            }
             ObjectMapper mapper = new ObjectMapper();
 
             mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
             this.storyData = mapper.readValue(inputStream, StoryData.class);
+            indexStory();
             System.out.println("Story data loaded successfully.");
 
         } catch (IOException e) {
@@ -87,6 +109,36 @@ public class VisualNovelSystem {
         }
     }
 
+    private void indexStory() {
+        Map<String, Map<String, Scene>> index = new HashMap<>();
+        if (storyData.getArcs() != null) {
+            for (Arc arc : storyData.getArcs()) {
+                Map<String, Scene> scenes = new HashMap<>();
+                if (arc.getScenes() != null) {
+                    for (Scene scene : arc.getScenes()) {
+                        scenes.putIfAbsent(scene.getId(), scene);
+                    }
+                }
+                index.putIfAbsent(arc.getId(), scenes);
+            }
+        }
+        sceneIndex = index;
+    }
+
+    /**
+     * Re-read the story file (dev hot reload). The current arc, scene and
+     * dialogue position are kept when they still exist.
+     */
+    public void reloadStory() {
+        loadStoryData();
+        missingBackgrounds.clear();
+
+        Scene currentScene = getCurrentScene();
+        if (currentScene != null && currentScene.getDialogues() != null) {
+            currentDialogueIndex = Math.min(currentDialogueIndex, currentScene.getDialogues().size());
+        }
+    }
+
     private void loadTextures() {
         if (!texturesLoaded) {
             System.out.println("Loading Visual Novel textures");
@@ -95,24 +147,31 @@ public class VisualNovelSystem {
                 this.fontRenderer = new FontRenderer();
             }
             // Load backgrounds
-            textureIds.put("dialog_box", TextureLoader.loadTexture("assets/images/visualnovel/dialog_box.png"));
-            textureIds.put("choice_box", TextureLoader.loadTexture("assets/images/visualnovel/choice_box.png"));
-            textureIds.put("choice_selected", TextureLoader.loadTexture("assets/images/visualnovel/choice_selected.png"));
+            loadUiTexture("dialog_box", "assets/images/visualnovel/dialog_box.png");
+            loadUiTexture("choice_box", "assets/images/visualnovel/choice_box.png");
+            loadUiTexture("choice_selected", "assets/images/visualnovel/choice_selected.png");
 
             // Default background and character images
-            textureIds.put("default_bg", TextureLoader.loadTexture("assets/images/visualnovel/backgrounds/default.png"));
+            loadUiTexture("default_bg", "assets/images/visualnovel/backgrounds/default.png");
 
-            // Load specific backgrounds for scenes
-            Scene currentScene = getCurrentScene();
-            if (currentScene != null && currentScene.getBackground() != null) {
-                String bgPath = "assets/images/visualnovel/backgrounds/" + currentScene.getBackground();
-                textureIds.put(currentScene.getBackground(), TextureLoader.loadTexture(bgPath));
-            }
+            // Scene backgrounds are loaded on demand through the TextureManager cache
 
             texturesLoaded = true;
         }
     }
 
+    // Pinned in the TextureManager cache so hot reload reaches it, with the smooth filtering the boxes are drawn with
+    private void loadUiTexture(String name, String path) {
+        int textureId = TextureManager.acquireTexture(path);
+        if (TextureManager.isCached(path)) { // Not the shared fallback texture
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        }
+        textureIds.put(name, textureId);
+        uiTexturePaths.put(name, path);
+    }
+
     public void update() {
         if (!texturesLoaded) {
             loadTextures();
@@ -121,8 +180,35 @@ public class VisualNovelSystem {
         // Play scene music if needed
         Scene currentScene = getCurrentScene();
         if (currentScene != null && currentScene.getMusic() != null) {
-            // audioManager.playBackgroundMusic(currentScene.getMusic());
+            musicDirector.play(currentScene.getMusic());
         }
+
+        // Fire the scene's sound effects and warm up its successors once when it is entered
+        if (currentScene != null && !currentSceneId.equals(soundPlayedSceneId)) {
+            soundPlayedSceneId = currentSceneId;
+            onSceneEntered(currentScene);
+        }
+    }
+
+    private void onSceneEntered(Scene scene) {
+        if (scene.getSound_effects() != null) {
+            for (String effect : scene.getSound_effects()) {
+                audioManager.playSoundEffect(effect);
+            }
+        }
+
+        // Decode effects of the scenes reachable from here so they start without delay
+        if (scene.getChoices() != null) {
+            for (Choice choice : scene.getChoices()) {
+                Scene next = findScene(choice.getNextScene());
+                if (next != null && next.getSound_effects() != null) {
+                    next.getSound_effects().forEach(audioManager::preloadSoundEffect);
+                }
+            }
+        }
+
+        // Backgrounds, sprites and music of the next scenes
+        assetPrefetcher.prefetchFromScene(scene, this::findScene);
     }
 
     public void render() {
@@ -152,7 +238,7 @@ public class VisualNovelSystem {
     }
 
     private void renderBackground(String background) {
-        int textureId = textureIds.getOrDefault(background, textureIds.get("default_bg"));
+        int textureId = getBackgroundTexture(background);
 
         GL11.glEnable(GL11.GL_TEXTURE_2D);
         GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureId);
@@ -168,6 +254,22 @@ public class VisualNovelSystem {
         GL11.glDisable(GL11.GL_TEXTURE_2D);
     }
 
+    private int getBackgroundTexture(String background) {
+        if (background == null || missingBackgrounds.contains(background)) {
+            return textureIds.get("default_bg");
+        }
+
+        // Cache hit on most frames; reloaded transparently if it was evicted
+        String bgPath = "assets/images/visualnovel/backgrounds/" + background;
+        int textureId = TextureManager.loadTexture(bgPath, true);
+        if (!TextureManager.isCached(bgPath)) {
+            // Failed loads aren't cached, remember them so we don't retry every frame
+            missingBackgrounds.add(background);
+            return textureIds.get("default_bg");
+        }
+        return textureId;
+    }
+
     private void renderDialogueBox() {
         int dialogBoxHeight = 250;
         int dialogBoxY = screenHeight - dialogBoxHeight - 20;
@@ -431,18 +533,14 @@ public class VisualNovelSystem {
     }
 
     private Scene getCurrentScene() {
-        if (storyData == null || storyData.getArcs() == null) return null;
+        return findScene(currentSceneId);
+    }
 
-        for (Arc arc : storyData.getArcs()) {
-            if (arc.getId().equals(currentArcId)) {
-                for (Scene scene : arc.getScenes()) {
-                    if (scene.getId().equals(currentSceneId)) {
-                        return scene;
-                    }
-                }
-            }
-        }
-        return null;
+    private Scene findScene(String sceneId) {
+        if (sceneId == null) return null;
+
+        Map<String, Scene> scenes = sceneIndex.get(currentArcId);
+        return scenes != null ? scenes.get(sceneId) : null;
     }
 
     @PreDestroy
@@ -453,9 +551,8 @@ public class VisualNovelSystem {
     public void releaseResources() {
         if (texturesLoaded) {
             System.out.println("Releasing VisualNovelSystem resources");
-            for (Integer textureId : textureIds.values()) {
-//                GL11.glDeleteTextures(textureId);
-            }
+            uiTexturePaths.values().forEach(TextureManager::releaseTexture);
+            uiTexturePaths.clear();
             textureIds.clear();
             texturesLoaded = false;
         }
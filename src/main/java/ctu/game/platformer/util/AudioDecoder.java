@@ -0,0 +1,26 @@
+package ctu.game.platformer.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental PCM decoder used by {@link StreamingSource}.
+ */
+public interface AudioDecoder extends AutoCloseable {
+
+    // OpenAL buffer format (AL_FORMAT_MONO16, AL_FORMAT_STEREO16, ...)
+    int getFormat();
+
+    int getSampleRate();
+
+    /**
+     * Decode PCM into dst starting at its position, advancing the position.
+     * Returns the number of bytes written, 0 at the end of the stream.
+     */
+    int read(ByteBuffer dst) throws Exception;
+
+    // Seek back to the start of the stream (used for looping)
+    void rewind() throws Exception;
+
+    @Override
+    void close();
+}
@@ -16,16 +16,70 @@ import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 @Component
 public class AudioManager {
+    // How often the audio thread refills streaming buffers
+    private static final long STREAM_UPDATE_INTERVAL_MS = 10;
+
+    // Sound effect priorities, higher priorities steal voices from lower ones
+    public static final int PRIORITY_LOW = 0;
+    public static final int PRIORITY_NORMAL = 50;
+    public static final int PRIORITY_HIGH = 100;
+
+    // Markers in effectBuffers for effects that aren't playable (yet)
+    private static final int EFFECT_LOADING = -1;
+    private static final int EFFECT_FAILED = -2;
+    private static final String SFX_PATH = "assets/audio/sfx/";
+
     private long device;
     private long context;
     private final Map<String, Integer> soundBuffers = new HashMap<>();
-    private int backgroundMusicSource = -1;
+    private StreamingSource backgroundMusic;
+    private float musicVolume = 0.5f;
+
+    // Streams refilled by the audio thread
+    private final List<StreamingSource> activeStreams = new CopyOnWriteArrayList<>();
+    private Thread audioThread;
+    private volatile boolean audioThreadRunning = false;
+
+    // Extra work run on every audio thread tick (e.g. MusicDirector fades)
+    private final List<Runnable> audioUpdateHooks = new CopyOnWriteArrayList<>();
+    // Run by cleanup once the audio thread has stopped, while the context still exists
+    private final List<Runnable> cleanupHooks = new CopyOnWriteArrayList<>();
+
+    // Sound effects: effect name -> decoded OpenAL buffer, filled by the audio thread
+    private SoundEffectPool soundEffects;
+    // False when the game ships without assets/audio/sfx: effects are then ignored outright
+    private boolean soundEffectsAvailable = false;
+    private final Map<String, Integer> effectBuffers = new ConcurrentHashMap<>();
+    private final Queue<PendingEffect> pendingEffects = new ConcurrentLinkedQueue<>();
+
+    private static class PendingEffect {
+        final String name;
+        final boolean play;
+        final int priority;
+        final float gain;
+
+        PendingEffect(String name, boolean play, int priority, float gain) {
+            this.name = name;
+            this.play = play;
+            this.priority = priority;
+            this.gain = gain;
+        }
+    }
 
     public void initialize() {
+        if (device != MemoryUtil.NULL) {
+            return; // Already initialized
+        }
+
         // Initialize OpenAL
         device = ALC10.alcOpenDevice((ByteBuffer) null);
         if (device == MemoryUtil.NULL) {
@@ -39,40 +93,190 @@ public class AudioManager {
 
         ALC10.alcMakeContextCurrent(context);
         AL.createCapabilities(ALC.createCapabilities(device));
+
+        soundEffects = new SoundEffectPool();
+        soundEffectsAvailable = getClass().getClassLoader().getResource(SFX_PATH) != null;
+        if (!soundEffectsAvailable) {
+            System.out.println("No " + SFX_PATH + " on the classpath, sound effects are off");
+        }
+        startAudioThread();
+    }
+
+    private void startAudioThread() {
+        audioThreadRunning = true;
+        audioThread = new Thread(() -> {
+            while (audioThreadRunning) {
+                loadPendingEffects();
+                soundEffects.update();
+
+                for (StreamingSource stream : activeStreams) {
+                    stream.update();
+                }
+
+                for (Runnable hook : audioUpdateHooks) {
+                    try {
+                        hook.run();
+                    } catch (Exception e) {
+                        System.err.println("Audio update failed: " + e.getMessage());
+                    }
+                }
+
+                try {
+                    Thread.sleep(STREAM_UPDATE_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        });
+        audioThread.setName("Audio-Thread");
+        audioThread.setDaemon(true);
+        audioThread.start();
+    }
+
+    /**
+     * Run a hook on the audio thread every tick, after streams are refilled.
+     * Hooks may call OpenAL and do blocking I/O without stalling the game thread.
+     */
+    public void addAudioUpdateHook(Runnable hook) {
+        audioUpdateHooks.add(hook);
+    }
+
+    // Release sources and buffers owned outside this class (e.g. MusicDirector streams)
+    public void addCleanupHook(Runnable hook) {
+        cleanupHooks.add(hook);
     }
 
     public void loadBackgroundMusic(String filename) {
         try {
-            int buffer = loadAudioFile("assets/audio/music/" + filename);
-            backgroundMusicSource = AL10.alGenSources();
+            StreamingSource stream = openStream("assets/audio/music/" + filename);
+            stream.setLooping(true);
+            stream.setGain(musicVolume);
 
-            // Configure the source
-            AL10.alSourcei(backgroundMusicSource, AL10.AL_BUFFER, buffer);
-            AL10.alSourcei(backgroundMusicSource, AL10.AL_LOOPING, AL10.AL_TRUE);
-            AL10.alSourcef(backgroundMusicSource, AL10.AL_GAIN, 0.5f); // Volume at 50%
+            if (backgroundMusic != null) {
+                activeStreams.remove(backgroundMusic);
+                backgroundMusic.close();
+            }
+            backgroundMusic = stream;
+            activeStreams.add(stream);
         } catch (Exception e) {
             System.err.println("Failed to load background music: " + e.getMessage());
         }
     }
 
     public void playBackgroundMusic() {
-        if (backgroundMusicSource != -1) {
-            AL10.alSourcePlay(backgroundMusicSource);
+        if (backgroundMusic != null) {
+            backgroundMusic.play();
         }
     }
 
     public void stopBackgroundMusic() {
-        if (backgroundMusicSource != -1) {
-            AL10.alSourceStop(backgroundMusicSource);
+        if (backgroundMusic != null) {
+            backgroundMusic.stop();
         }
     }
 
     public void setVolume(float volume) {
-        if (backgroundMusicSource != -1) {
-            AL10.alSourcef(backgroundMusicSource, AL10.AL_GAIN, volume);
+        musicVolume = volume;
+        if (backgroundMusic != null) {
+            backgroundMusic.setGain(volume);
+        }
+    }
+
+    /**
+     * Open a streaming source for a classpath audio resource. Only the
+     * decoder state is created here, PCM is decoded as the source plays.
+     */
+    public StreamingSource openStream(String resource) throws Exception {
+        return new StreamingSource(openDecoder(resource));
+    }
+
+    private AudioDecoder openDecoder(String resource) throws Exception {
+        String lower = resource.toLowerCase();
+        if (lower.endsWith(".ogg")) {
+            return new VorbisDecoder(resource);
+        }
+        if (lower.endsWith(".wav")) {
+            return new WavDecoder(resource);
+        }
+        throw new UnsupportedOperationException("Unsupported audio format: " + resource);
+    }
+
+    /**
+     * Play a sound effect from assets/audio/sfx. Safe to call at any rate from
+     * the game thread: once an effect is decoded this only writes into the
+     * voice pool's trigger queue. The first trigger of an unloaded effect
+     * schedules the decode on the audio thread and plays when it's ready.
+     *
+     * Effects are decoded as WAV. Story files name them with other extensions
+     * (door_creak.mp3), so a missing name falls back to the same base name
+     * with .wav. Without an sfx directory this does nothing.
+     */
+    public void playSoundEffect(String name) {
+        playSoundEffect(name, PRIORITY_NORMAL, 1.0f);
+    }
+
+    public void playSoundEffect(String name, int priority, float gain) {
+        if (!soundEffectsAvailable || soundEffects == null || name == null) return;
+
+        Integer buffer = effectBuffers.get(name);
+        if (buffer == null) {
+            requestEffect(name, true, priority, gain);
+        } else if (buffer > 0) {
+            soundEffects.trigger(buffer, priority, gain);
         }
     }
 
+    // Decode an effect ahead of time so its first trigger plays immediately
+    public void preloadSoundEffect(String name) {
+        if (!soundEffectsAvailable || soundEffects == null || name == null) return;
+
+        if (!effectBuffers.containsKey(name)) {
+            requestEffect(name, false, PRIORITY_NORMAL, 1.0f);
+        }
+    }
+
+    private void requestEffect(String name, boolean play, int priority, float gain) {
+        if (effectBuffers.putIfAbsent(name, EFFECT_LOADING) == null) {
+            pendingEffects.offer(new PendingEffect(name, play, priority, gain));
+        }
+    }
+
+    // Audio thread: decode requested effects and play the ones that were triggered
+    private void loadPendingEffects() {
+        PendingEffect pending;
+        while ((pending = pendingEffects.poll()) != null) {
+            try {
+                int buffer = loadAudioFile(resolveEffect(pending.name));
+                effectBuffers.put(pending.name, buffer);
+                if (pending.play) {
+                    soundEffects.playNow(buffer, pending.priority, pending.gain);
+                }
+            } catch (Exception e) {
+                effectBuffers.put(pending.name, EFFECT_FAILED);
+                System.err.println("Failed to load sound effect " + pending.name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    // Resource path of an effect: the name itself, or the name with a .wav extension
+    private String resolveEffect(String name) {
+        String resource = SFX_PATH + name;
+        if (getClass().getClassLoader().getResource(resource) != null) {
+            return resource;
+        }
+        int dot = name.lastIndexOf('.');
+        String wav = SFX_PATH + (dot >= 0 ? name.substring(0, dot) : name) + ".wav";
+        if (getClass().getClassLoader().getResource(wav) != null) {
+            return wav;
+        }
+        return resource; // Fails to load and is reported with its original name
+    }
+
+    public boolean isSoundEffectsAvailable() {
+        return soundEffectsAvailable;
+    }
+
     private int loadAudioFile(String filename) throws Exception {
         if (soundBuffers.containsKey(filename)) {
             return soundBuffers.get(filename);
@@ -121,10 +325,30 @@ public class AudioManager {
     }
 
     public void cleanup() {
-        if (backgroundMusicSource != -1) {
-            AL10.alSourceStop(backgroundMusicSource);
-            AL10.alDeleteSources(backgroundMusicSource);
+        audioThreadRunning = false;
+        if (audioThread != null) {
+            try {
+                audioThread.join(500);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        for (Runnable hook : cleanupHooks) {
+            hook.run();
+        }
+
+        for (StreamingSource stream : activeStreams) {
+            stream.close();
+        }
+        activeStreams.clear();
+        backgroundMusic = null;
+
+        if (soundEffects != null) {
+            soundEffects.cleanup();
+            soundEffects = null;
         }
+        effectBuffers.clear();
 
         for (Integer buffer : soundBuffers.values()) {
             AL10.alDeleteBuffers(buffer);
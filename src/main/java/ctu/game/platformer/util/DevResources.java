@@ -0,0 +1,95 @@
+package ctu.game.platformer.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resource lookup that can be pointed at the source tree in dev mode, so
+ * edited maps, story files and images are read from disk instead of the
+ * copies packaged on the classpath.
+ */
+public class DevResources {
+    private static volatile Path overrideRoot = null;
+
+    // Jar resources already copied out by resolveFile, by resource path
+    private static final Map<String, Path> extracted = new HashMap<>();
+
+    public static void setOverrideRoot(Path root) {
+        overrideRoot = root;
+    }
+
+    public static Path getOverrideRoot() {
+        return overrideRoot;
+    }
+
+    // Open a resource, preferring the dev override directory when enabled
+    public static InputStream open(String resourcePath) throws IOException {
+        Path root = overrideRoot;
+        if (root != null) {
+            Path file = root.resolve(resourcePath);
+            if (Files.isRegularFile(file)) {
+                return Files.newInputStream(file);
+            }
+        }
+        return DevResources.class.getClassLoader().getResourceAsStream(resourcePath);
+    }
+
+    /**
+     * Resolve a resource to a file on disk, for callers that need a real
+     * file (memory mapping). Resources packaged inside a jar are copied to a
+     * temp file once and that copy is reused. Returns null if the resource
+     * doesn't exist.
+     */
+    public static Path resolveFile(String resourcePath) throws IOException {
+        Path root = overrideRoot;
+        if (root != null) {
+            Path file = root.resolve(resourcePath);
+            if (Files.isRegularFile(file)) {
+                return file;
+            }
+        }
+
+        URL url = DevResources.class.getClassLoader().getResource(resourcePath);
+        if (url == null) {
+            return null;
+        }
+        if ("file".equals(url.getProtocol())) {
+            try {
+                return Paths.get(url.toURI());
+            } catch (Exception e) {
+                throw new IOException("Bad resource location " + url, e);
+            }
+        }
+
+        synchronized (extracted) {
+            Path copy = extracted.get(resourcePath);
+            if (copy != null && Files.isRegularFile(copy)) {
+                return copy;
+            }
+
+            String name = Paths.get(resourcePath).getFileName().toString();
+            Path temp = Files.createTempFile("res-", "-" + name);
+            temp.toFile().deleteOnExit();
+            try (InputStream is = url.openStream()) {
+                Files.copy(is, temp, StandardCopyOption.REPLACE_EXISTING);
+            }
+            extracted.put(resourcePath, temp);
+            return temp;
+        }
+    }
+
+    public static boolean exists(String resourcePath) {
+        Path root = overrideRoot;
+        if (root != null && Files.isRegularFile(root.resolve(resourcePath))) {
+            return true;
+        }
+        return DevResources.class.getClassLoader().getResource(resourcePath) != null;
+    }
+}
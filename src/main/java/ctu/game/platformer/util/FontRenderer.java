@@ -17,55 +17,110 @@ import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class FontRenderer {
+    public static final String DEFAULT_FONT = "fonts/WinkySans-Black.ttf";
+    public static final int DEFAULT_FONT_SIZE = 24;
+    private static final int BITMAP_SIZE = 512;
+
+    // Font bitmaps baked ahead of time (CPU only), keyed by path and size
+    private static final Map<String, BakedFont> prebaked = new ConcurrentHashMap<>();
+
+    private static class BakedFont {
+        final ByteBuffer ttfBuffer;
+        final ByteBuffer bitmap;
+        final STBTTBakedChar.Buffer cdata;
+
+        BakedFont(ByteBuffer ttfBuffer, ByteBuffer bitmap, STBTTBakedChar.Buffer cdata) {
+            this.ttfBuffer = ttfBuffer;
+            this.bitmap = bitmap;
+            this.cdata = cdata;
+        }
+    }
+
     private ByteBuffer ttfBuffer;
     private STBTTBakedChar.Buffer cdata;
     private int fontTexture;
     private int fontSize;
-    private int bitmapWidth = 512;
-    private int bitmapHeight = 512;
+    private int bitmapWidth = BITMAP_SIZE;
+    private int bitmapHeight = BITMAP_SIZE;
 
     public FontRenderer() {
-        this(24);
+        this(DEFAULT_FONT_SIZE);
     }
 
     public FontRenderer(int fontSize) {
         this.fontSize = fontSize;
-        loadFont("fonts/WinkySans-Black.ttf");
+        loadFont(DEFAULT_FONT);
     }
 
-    private void loadFont(String fontPath) {
-        try {
+    /**
+     * Read the TTF and bake the glyph bitmap without touching OpenGL, so it can
+     * run on a worker thread. The next FontRenderer for the same font and size
+     * only uploads the result.
+     */
+    public static void prebake(String fontPath, int fontSize) {
+        String key = fontPath + "@" + fontSize;
+        if (prebaked.containsKey(key)) return;
+
+        BakedFont baked = bake(fontPath, fontSize);
+        if (baked != null) {
+            prebaked.put(key, baked);
+        }
+    }
+
+    private static BakedFont bake(String fontPath, int fontSize) {
+        try (InputStream is = FontRenderer.class.getClassLoader().getResourceAsStream(fontPath)) {
             // Read TTF file into byte array
-            InputStream is = getClass().getClassLoader().getResourceAsStream(fontPath);
             if (is == null) {
                 System.err.println("Could not find font: " + fontPath);
-                return;
+                return null;
             }
 
             byte[] fontData = is.readAllBytes();
-            ttfBuffer = BufferUtils.createByteBuffer(fontData.length);
+            ByteBuffer ttfBuffer = BufferUtils.createByteBuffer(fontData.length);
             ttfBuffer.put(fontData);
             ttfBuffer.flip();
 
             // Create bitmap for ASCII codepoints
-            ByteBuffer bitmap = BufferUtils.createByteBuffer(bitmapWidth * bitmapHeight);
-            cdata = STBTTBakedChar.malloc(96); // ASCII 32-127
+            ByteBuffer bitmap = BufferUtils.createByteBuffer(BITMAP_SIZE * BITMAP_SIZE);
+            STBTTBakedChar.Buffer cdata = STBTTBakedChar.malloc(96); // ASCII 32-127
             int result = STBTruetype.stbtt_BakeFontBitmap(
                     ttfBuffer,
                     fontSize,
                     bitmap,
-                    bitmapWidth,
-                    bitmapHeight,
+                    BITMAP_SIZE,
+                    BITMAP_SIZE,
                     32, // First character
                     cdata);
 
             if (result <= 0) {
                 System.err.println("Failed to bake font bitmap");
-                return;
+                cdata.free();
+                return null;
+            }
+            return new BakedFont(ttfBuffer, bitmap, cdata);
+        } catch (IOException e) {
+            System.err.println("Failed to load font: " + e.getMessage());
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    private void loadFont(String fontPath) {
+        try {
+            BakedFont baked = prebaked.remove(fontPath + "@" + fontSize);
+            if (baked == null) {
+                baked = bake(fontPath, fontSize);
+                if (baked == null) return;
             }
 
+            ttfBuffer = baked.ttfBuffer;
+            cdata = baked.cdata;
+            ByteBuffer bitmap = baked.bitmap;
+
             // Create OpenGL texture from bitmap
             fontTexture = GL11.glGenTextures();
             GL11.glBindTexture(GL11.GL_TEXTURE_2D, fontTexture);
@@ -86,7 +141,7 @@ public class FontRenderer {
             GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
             GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL12.GL_CLAMP_TO_EDGE);
 
-        } catch (IOException e) {
+        } catch (Exception e) {
             System.err.println("Failed to load font: " + e.getMessage());
             e.printStackTrace();
         }
@@ -0,0 +1,200 @@
+package ctu.game.platformer.util;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Switches background music between scenes and levels.
+ *
+ * The game thread only records which track it wants ({@link #play}) or may
+ * want soon ({@link #prepare}). Opening decoders, priming buffers and the
+ * crossfade between the outgoing and incoming stream all happen on the
+ * audio thread, so a scene change never waits on file I/O.
+ */
+@Component
+public class MusicDirector {
+    private static final String MUSIC_PATH = "assets/audio/music/";
+    private static final long DEFAULT_FADE_MS = 1500;
+    private static final int MAX_PREPARED = 2;
+
+    @Autowired
+    private AudioManager audioManager;
+
+    private volatile String requestedTrack = null;
+    private volatile long requestedFadeMs = DEFAULT_FADE_MS;
+    private volatile float volume = 0.5f;
+    private final Queue<String> prepareRequests = new ConcurrentLinkedQueue<>();
+
+    // Audio thread state
+    private volatile String currentTrack = null;
+    private StreamingSource current;
+    private StreamingSource outgoing;
+    private float outgoingStartGain = 0;
+    private long fadeStart = 0;
+    private long fadeDuration = 0;
+    private final LinkedHashMap<String, StreamingSource> prepared = new LinkedHashMap<>();
+    private final Set<String> failedTracks = new HashSet<>();
+
+    @PostConstruct
+    private void init() {
+        audioManager.addAudioUpdateHook(this::update);
+        audioManager.addCleanupHook(this::cleanup);
+    }
+
+    /**
+     * Crossfade to a track (file name under assets/audio/music). Cheap enough
+     * to call every tick; repeated requests for the current track are ignored.
+     */
+    public void play(String track) {
+        play(track, DEFAULT_FADE_MS);
+    }
+
+    public void play(String track, long fadeMs) {
+        requestedFadeMs = fadeMs;
+        requestedTrack = track;
+    }
+
+    // Open a track's stream ahead of time so a later play() starts instantly
+    public void prepare(String track) {
+        if (track != null && !track.isEmpty()) {
+            prepareRequests.offer(track);
+        }
+    }
+
+    // Fade out whatever is playing
+    public void stop() {
+        requestedTrack = "";
+    }
+
+    public void setVolume(float volume) {
+        this.volume = volume;
+    }
+
+    // Audio thread
+    private void update() {
+        String prepareTrack;
+        while ((prepareTrack = prepareRequests.poll()) != null) {
+            if (!prepareTrack.equals(currentTrack)) {
+                takePrepared(prepareTrack, true);
+            }
+        }
+
+        String requested = requestedTrack;
+        if (requested != null && !requested.equals(currentTrack)) {
+            startTransition(requested);
+        }
+
+        updateFade();
+
+        if (current != null) current.update();
+        if (outgoing != null) outgoing.update();
+    }
+
+    private void startTransition(String track) {
+        StreamingSource incoming = track.isEmpty() ? null : takePrepared(track, false);
+        if (incoming == null && !track.isEmpty()) {
+            return; // Failed to open, keep playing what we have
+        }
+
+        // A fade already in progress is cut short
+        if (outgoing != null) {
+            outgoing.close();
+        }
+
+        outgoing = current;
+        outgoingStartGain = currentGain();
+        current = incoming;
+        currentTrack = track;
+
+        fadeStart = System.nanoTime();
+        fadeDuration = Math.max(1, requestedFadeMs) * 1_000_000L;
+
+        if (current != null) {
+            current.setGain(0);
+            current.play();
+        }
+    }
+
+    private void updateFade() {
+        if (fadeDuration == 0) {
+            if (current != null) current.setGain(volume);
+            return;
+        }
+
+        float t = Math.min(1.0f, (System.nanoTime() - fadeStart) / (float) fadeDuration);
+        if (current != null) current.setGain(volume * t);
+        if (outgoing != null) outgoing.setGain(outgoingStartGain * (1.0f - t));
+
+        if (t >= 1.0f) {
+            if (outgoing != null) {
+                outgoing.close();
+                outgoing = null;
+            }
+            fadeDuration = 0;
+        }
+    }
+
+    private float currentGain() {
+        if (fadeDuration == 0) return volume;
+        float t = Math.min(1.0f, (System.nanoTime() - fadeStart) / (float) fadeDuration);
+        return volume * t;
+    }
+
+    // Get (or open) the stream for a track. With keep=true it stays in the prepared set.
+    private StreamingSource takePrepared(String track, boolean keep) {
+        StreamingSource stream = prepared.remove(track);
+        if (stream == null) {
+            if (failedTracks.contains(track)) return null;
+            try {
+                stream = audioManager.openStream(MUSIC_PATH + track);
+                stream.setLooping(true);
+            } catch (Exception e) {
+                failedTracks.add(track);
+                System.err.println("Failed to open music " + track + ": " + e.getMessage());
+                return null;
+            }
+        }
+
+        if (keep) {
+            prepared.put(track, stream);
+            // Drop the oldest prepared stream beyond the limit
+            while (prepared.size() > MAX_PREPARED) {
+                Map.Entry<String, StreamingSource> eldest = prepared.entrySet().iterator().next();
+                eldest.getValue().close();
+                prepared.remove(eldest.getKey());
+            }
+        }
+        return stream;
+    }
+
+    // Close every stream the director holds; AudioManager runs this after the audio thread stopped
+    public void cleanup() {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+        if (outgoing != null) {
+            outgoing.close();
+            outgoing = null;
+        }
+        for (StreamingSource stream : prepared.values()) {
+            stream.close();
+        }
+        prepared.clear();
+        currentTrack = null;
+        requestedTrack = null;
+        fadeDuration = 0;
+    }
+
+    public String getCurrentTrack() {
+        return currentTrack;
+    }
+}
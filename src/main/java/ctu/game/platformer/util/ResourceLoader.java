@@ -11,6 +11,8 @@ import java.nio.channels.SeekableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.lwjgl.opengl.GL11;
 import org.springframework.stereotype.Component;
@@ -19,19 +21,42 @@ import javax.imageio.ImageIO;
 
 @Component
 public class ResourceLoader {
+    // Images decoded ahead of time by prefetchImage, consumed by loadTextureFromFile
+    private final Map<String, BufferedImage> prefetchedImages = new ConcurrentHashMap<>();
+
+    /**
+     * Decode an image from assets/images on the calling thread so a later
+     * loadTextureFromFile only has to upload it.
+     */
+    public void prefetchImage(String fileName) {
+        String resourcePath = "assets/images/" + fileName;
+        try (InputStream stream = this.loadResourceAsStream(resourcePath)) {
+            if (stream == null) return;
 
+            BufferedImage image = ImageIO.read(stream);
+            if (image != null) {
+                prefetchedImages.put(fileName, image);
+            }
+        } catch (IOException e) {
+            System.err.println("ERROR prefetching image " + resourcePath + ": " + e.getMessage());
+        }
+    }
 
+    @SuppressWarnings("try")
     public int loadTextureFromFile(String fileName) {
-        try {
+        try (StartupTracer.Span ignored = StartupTracer.begin("load image " + fileName, "asset")) {
             String resourcePath = "assets/images/" + fileName;
-            InputStream stream = this.loadResourceAsStream(resourcePath);
+            BufferedImage image = prefetchedImages.remove(fileName);
 
-            if (stream == null) {
-                System.err.println("ERROR: Could not find resource: " + resourcePath);
-                return -1;
+            if (image == null) {
+                InputStream stream = this.loadResourceAsStream(resourcePath);
+                if (stream == null) {
+                    System.err.println("ERROR: Could not find resource: " + resourcePath);
+                    return -1;
+                }
+                image = ImageIO.read(stream);
             }
 
-            BufferedImage image = ImageIO.read(stream);
             if (image == null) {
                 System.err.println("ERROR: Failed to read image from: " + resourcePath);
                 return -1;
@@ -0,0 +1,165 @@
+package ctu.game.platformer.util;
+
+import org.lwjgl.openal.AL10;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed pool of OpenAL sources for short sound effects.
+ *
+ * The game thread only writes triggers into a preallocated ring
+ * ({@link #trigger}), which never allocates or touches OpenAL. The audio
+ * thread drains the ring in {@link #update()} and assigns voices, stealing
+ * the oldest lowest-priority voice when every source is busy.
+ */
+public class SoundEffectPool {
+    private static final int VOICE_COUNT = 32;
+    private static final int QUEUE_CAPACITY = 1024; // Must be a power of two
+    private static final int QUEUE_MASK = QUEUE_CAPACITY - 1;
+
+    // Voices
+    private final int[] voices = new int[VOICE_COUNT];
+    private final int[] voiceBuffer = new int[VOICE_COUNT];
+    private final int[] voicePriority = new int[VOICE_COUNT];
+    private final long[] voiceStartTick = new long[VOICE_COUNT];
+    private final boolean[] voiceBusy = new boolean[VOICE_COUNT];
+
+    // Single-producer (game thread) / single-consumer (audio thread) trigger ring
+    private final int[] queueBuffer = new int[QUEUE_CAPACITY];
+    private final int[] queuePriority = new int[QUEUE_CAPACITY];
+    private final float[] queueGain = new float[QUEUE_CAPACITY];
+    private final AtomicLong head = new AtomicLong(); // Next slot to read
+    private final AtomicLong tail = new AtomicLong(); // Next slot to write
+
+    private long tick = 0;
+
+    // Statistics
+    private volatile long played = 0;
+    private volatile long stolen = 0;
+    // Counted by both threads (full queue on the game thread, no voice on the audio thread)
+    private final LongAdder dropped = new LongAdder();
+
+    public SoundEffectPool() {
+        AL10.alGenSources(voices);
+        for (int voice : voices) {
+            AL10.alSourcei(voice, AL10.AL_LOOPING, AL10.AL_FALSE);
+        }
+    }
+
+    /**
+     * Queue a sound effect from the game thread. Returns false if the queue is
+     * full and the trigger was dropped.
+     */
+    public boolean trigger(int buffer, int priority, float gain) {
+        long t = tail.get();
+        if (t - head.get() >= QUEUE_CAPACITY) {
+            dropped.increment();
+            return false;
+        }
+
+        int slot = (int) (t & QUEUE_MASK);
+        queueBuffer[slot] = buffer;
+        queuePriority[slot] = priority;
+        queueGain[slot] = gain;
+        tail.lazySet(t + 1); // Publish the slot
+        return true;
+    }
+
+    /**
+     * Audio thread: drain pending triggers and start voices.
+     */
+    public void update() {
+        tick++;
+        refreshVoiceStates();
+
+        long h = head.get();
+        long t = tail.get();
+        while (h < t) {
+            int slot = (int) (h & QUEUE_MASK);
+            playNow(queueBuffer[slot], queuePriority[slot], queueGain[slot]);
+            h++;
+        }
+        head.lazySet(h);
+    }
+
+    /**
+     * Audio thread only: start a buffer on the best available voice.
+     */
+    public void playNow(int buffer, int priority, float gain) {
+        int voice = -1;
+        int victim = -1;
+
+        for (int i = 0; i < VOICE_COUNT; i++) {
+            if (!voiceBusy[i]) {
+                if (voice == -1) voice = i;
+                continue;
+            }
+
+            // Collapse bursts of the same effect within one audio tick
+            if (voiceBuffer[i] == buffer && voiceStartTick[i] == tick) {
+                return;
+            }
+
+            // Oldest voice of the lowest priority that doesn't outrank us
+            if (voicePriority[i] <= priority && (victim == -1
+                    || voicePriority[i] < voicePriority[victim]
+                    || (voicePriority[i] == voicePriority[victim] && voiceStartTick[i] < voiceStartTick[victim]))) {
+                victim = i;
+            }
+        }
+
+        if (voice == -1) {
+            if (victim == -1) {
+                dropped.increment();
+                return;
+            }
+            voice = victim;
+            stolen++;
+        }
+
+        int source = voices[voice];
+        AL10.alSourceStop(source);
+        AL10.alSourcei(source, AL10.AL_BUFFER, buffer);
+        AL10.alSourcef(source, AL10.AL_GAIN, gain);
+        AL10.alSourcePlay(source);
+
+        voiceBuffer[voice] = buffer;
+        voicePriority[voice] = priority;
+        voiceStartTick[voice] = tick;
+        voiceBusy[voice] = true;
+        played++;
+    }
+
+    private void refreshVoiceStates() {
+        for (int i = 0; i < VOICE_COUNT; i++) {
+            if (voiceBusy[i] && AL10.alGetSourcei(voices[i], AL10.AL_SOURCE_STATE) != AL10.AL_PLAYING) {
+                voiceBusy[i] = false;
+            }
+        }
+    }
+
+    public void stopAll() {
+        for (int i = 0; i < VOICE_COUNT; i++) {
+            AL10.alSourceStop(voices[i]);
+            voiceBusy[i] = false;
+        }
+    }
+
+    public void cleanup() {
+        stopAll();
+        AL10.alDeleteSources(voices);
+    }
+
+    public long getPlayedCount() {
+        return played;
+    }
+
+    public long getStolenCount() {
+        return stolen;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+}
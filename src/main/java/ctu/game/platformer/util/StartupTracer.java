@@ -0,0 +1,179 @@
+package ctu.game.platformer.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records named spans from JVM launch until the first interactive frame and
+ * writes them as a Chrome trace (open in chrome://tracing or Perfetto).
+ *
+ * Enabled with -Dgame.trace.startup=<file>, or implicitly by the
+ * time-to-first-frame benchmark (-Dgame.benchmark.firstFrame=true), which
+ * writes startup-trace.json. When disabled every call is a cheap no-op.
+ */
+public final class StartupTracer {
+    public static final String BENCHMARK_PROPERTY = "game.benchmark.firstFrame";
+    private static final String TRACE_PROPERTY = "game.trace.startup";
+    private static final String DEFAULT_TRACE_FILE = "startup-trace.json";
+
+    private static final boolean BENCHMARK = Boolean.getBoolean(BENCHMARK_PROPERTY);
+    private static final String traceFile = System.getProperty(TRACE_PROPERTY,
+            BENCHMARK ? DEFAULT_TRACE_FILE : null);
+
+    // nanoTime value corresponding to JVM start, so timestamps line up with uptime
+    private static final long originNanos =
+            System.nanoTime() - ManagementFactory.getRuntimeMXBean().getUptime() * 1_000_000L;
+
+    private static final Span NOOP = new Span(null, null, 0);
+
+    private static final List<Event> events = new ArrayList<>();
+    private static final Map<Long, String> threadNames = new LinkedHashMap<>();
+    private static volatile boolean recording = traceFile != null;
+
+    private StartupTracer() {
+    }
+
+    private static class Event {
+        final String name;
+        final String category;
+        final char phase;
+        final long startMicros;
+        final long durationMicros;
+        final long threadId;
+
+        Event(String name, String category, char phase, long startMicros, long durationMicros, long threadId) {
+            this.name = name;
+            this.category = category;
+            this.phase = phase;
+            this.startMicros = startMicros;
+            this.durationMicros = durationMicros;
+            this.threadId = threadId;
+        }
+    }
+
+    /**
+     * An open span, closed with try-with-resources. Ends on the thread that
+     * started it. The resource variable is never read in the block, so
+     * methods that open spans suppress javac's "try" lint.
+     */
+    public static final class Span implements AutoCloseable {
+        private final String name;
+        private final String category;
+        private final long startNanos;
+
+        private Span(String name, String category, long startNanos) {
+            this.name = name;
+            this.category = category;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            if (name != null) {
+                record(name, category, startNanos, System.nanoTime());
+            }
+        }
+    }
+
+    public static boolean isEnabled() {
+        return recording;
+    }
+
+    public static boolean isBenchmark() {
+        return BENCHMARK;
+    }
+
+    public static Span begin(String name, String category) {
+        if (!recording) return NOOP;
+        return new Span(name, category, System.nanoTime());
+    }
+
+    // Record a span whose start and end were measured elsewhere on the current thread
+    public static void record(String name, String category, long startNanos, long endNanos) {
+        if (!recording) return;
+        add(new Event(name, category, 'X', toMicros(startNanos),
+                Math.max(0, (endNanos - startNanos) / 1000), Thread.currentThread().getId()));
+    }
+
+    public static void instant(String name, String category) {
+        if (!recording) return;
+        add(new Event(name, category, 'i', toMicros(System.nanoTime()), 0, Thread.currentThread().getId()));
+    }
+
+    public static long millisSinceJvmStart() {
+        return (System.nanoTime() - originNanos) / 1_000_000;
+    }
+
+    private static synchronized void add(Event event) {
+        if (!recording) return;
+        events.add(event);
+        threadNames.putIfAbsent(event.threadId, Thread.currentThread().getName());
+    }
+
+    private static long toMicros(long nanos) {
+        return (nanos - originNanos) / 1000;
+    }
+
+    /**
+     * Stop recording and write the trace file. Later calls do nothing, so the
+     * file only covers startup.
+     */
+    public static synchronized void finish() {
+        if (!recording) return;
+        recording = false;
+
+        Path path = Paths.get(traceFile);
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+            out.write("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":1,\"tid\":0,\"args\":{\"name\":\"platformer\"}}");
+
+            for (Map.Entry<Long, String> thread : threadNames.entrySet()) {
+                out.write(",\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + thread.getKey()
+                        + ",\"args\":{\"name\":" + quote(thread.getValue()) + "}}");
+            }
+
+            for (Event event : events) {
+                out.write(",\n{\"name\":" + quote(event.name)
+                        + ",\"cat\":" + quote(event.category)
+                        + ",\"ph\":\"" + event.phase + "\""
+                        + ",\"ts\":" + event.startMicros
+                        + (event.phase == 'X' ? ",\"dur\":" + event.durationMicros : ",\"s\":\"g\"")
+                        + ",\"pid\":1,\"tid\":" + event.threadId + "}");
+            }
+            out.write("\n]}\n");
+
+            System.out.println("Startup trace written to " + path.toAbsolutePath() + " (" + events.size() + " events)");
+        } catch (IOException e) {
+            System.err.println("Failed to write startup trace " + path + ": " + e.getMessage());
+        } finally {
+            events.clear();
+            threadNames.clear();
+        }
+    }
+
+    private static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': sb.append("\\\""); break;
+                case '\\': sb.append("\\\\"); break;
+                case '\n': sb.append("\\n"); break;
+                case '\t': sb.append("\\t"); break;
+                default:
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
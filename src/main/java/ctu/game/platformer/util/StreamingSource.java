@@ -0,0 +1,149 @@
+package ctu.game.platformer.util;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.openal.AL10;
+
+import java.nio.ByteBuffer;
+
+/**
+ * An OpenAL source fed from a small ring of queued buffers. The decoder is
+ * pulled one chunk at a time, so a track never has to fit in memory.
+ * {@link #update()} is called from the audio thread to refill processed buffers.
+ */
+public class StreamingSource {
+    private static final int BUFFER_COUNT = 4;
+    private static final int BUFFER_SIZE = 64 * 1024; // ~0.37s of 44.1kHz stereo 16-bit
+
+    private final AudioDecoder decoder;
+    private final int source;
+    private final int[] buffers = new int[BUFFER_COUNT];
+    // Native-ordered staging buffer reused for every chunk
+    private final ByteBuffer pcm = BufferUtils.createByteBuffer(BUFFER_SIZE);
+
+    private boolean looping = true;
+    private boolean playing = false;
+    private boolean closed = false;
+
+    public StreamingSource(AudioDecoder decoder) {
+        this.decoder = decoder;
+        this.source = AL10.alGenSources();
+        AL10.alGenBuffers(buffers);
+    }
+
+    public synchronized void play() {
+        if (playing || closed) return;
+
+        // Prime the queue before starting playback
+        AL10.alSourceStop(source);
+        unqueueAll();
+        for (int buffer : buffers) {
+            if (!fillBuffer(buffer)) break;
+            AL10.alSourceQueueBuffers(source, buffer);
+        }
+
+        AL10.alSourcePlay(source);
+        playing = true;
+    }
+
+    public synchronized void stop() {
+        if (closed) return;
+
+        AL10.alSourceStop(source);
+        unqueueAll();
+        playing = false;
+
+        try {
+            decoder.rewind();
+        } catch (Exception e) {
+            System.err.println("Failed to rewind audio stream: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Refill processed buffers. Returns false once the stream has finished.
+     */
+    public synchronized boolean update() {
+        if (!playing || closed) return false;
+
+        int processed = AL10.alGetSourcei(source, AL10.AL_BUFFERS_PROCESSED);
+        while (processed-- > 0) {
+            int buffer = AL10.alSourceUnqueueBuffers(source);
+            if (fillBuffer(buffer)) {
+                AL10.alSourceQueueBuffers(source, buffer);
+            }
+        }
+
+        int queued = AL10.alGetSourcei(source, AL10.AL_BUFFERS_QUEUED);
+        if (queued == 0) {
+            // Ran out of data
+            playing = false;
+            return false;
+        }
+
+        // Restart after an underrun (refill thread fell behind)
+        if (AL10.alGetSourcei(source, AL10.AL_SOURCE_STATE) != AL10.AL_PLAYING) {
+            AL10.alSourcePlay(source);
+        }
+        return true;
+    }
+
+    private boolean fillBuffer(int buffer) {
+        pcm.clear();
+        try {
+            boolean rewound = false;
+            while (pcm.hasRemaining()) {
+                if (decoder.read(pcm) > 0) {
+                    rewound = false;
+                    continue;
+                }
+                // End of stream: wrap around when looping (once, to avoid spinning on empty files)
+                if (!looping || rewound) break;
+                decoder.rewind();
+                rewound = true;
+            }
+        } catch (Exception e) {
+            System.err.println("Failed to decode audio stream: " + e.getMessage());
+        }
+
+        pcm.flip();
+        if (!pcm.hasRemaining()) {
+            return false;
+        }
+
+        AL10.alBufferData(buffer, decoder.getFormat(), pcm, decoder.getSampleRate());
+        return true;
+    }
+
+    private void unqueueAll() {
+        int queued = AL10.alGetSourcei(source, AL10.AL_BUFFERS_QUEUED);
+        while (queued-- > 0) {
+            AL10.alSourceUnqueueBuffers(source);
+        }
+    }
+
+    public synchronized void setGain(float gain) {
+        if (!closed) {
+            AL10.alSourcef(source, AL10.AL_GAIN, gain);
+        }
+    }
+
+    public synchronized void setLooping(boolean looping) {
+        this.looping = looping;
+    }
+
+    public synchronized boolean isPlaying() {
+        return playing;
+    }
+
+    public synchronized void close() {
+        if (closed) return;
+
+        AL10.alSourceStop(source);
+        unqueueAll();
+        AL10.alDeleteSources(source);
+        AL10.alDeleteBuffers(buffers);
+        decoder.close();
+        closed = true;
+        playing = false;
+    }
+}
@@ -18,14 +18,23 @@ public class TextRendererUtil {
     private static int fontTextureId = -1;
     private static final Map<Character, CharInfo> charMap = new HashMap<>();
 
+    // Atlas pixels baked on the CPU, waiting for upload
+    private static ByteBuffer bakedAtlas = null;
+    private static final int ATLAS_WIDTH = 512;
+    private static final int ATLAS_HEIGHT = 512;
+
     private static class CharInfo {
         float u1, v1; // Top-left texture coordinates
         float u2, v2; // Bottom-right texture coordinates
         int width;    // Character width
     }
 
-    private static void initialize() {
-        if (initialized) return;
+    /**
+     * Rasterize the font atlas with AWT. Needs no GL context, so the bootstrap
+     * runs it on a worker thread; the upload happens on first draw.
+     */
+    public static synchronized void prebake() {
+        if (initialized || bakedAtlas != null) return;
 
         try {
             // Create a font texture atlas
@@ -33,8 +42,8 @@ public class TextRendererUtil {
             Font font = new Font("Arial", Font.PLAIN, fontSize);
 
             // Create texture atlas size
-            int textureWidth = 512;
-            int textureHeight = 512;
+            int textureWidth = ATLAS_WIDTH;
+            int textureHeight = ATLAS_HEIGHT;
 
             // Create a buffered image for the font texture atlas
             BufferedImage image = new BufferedImage(textureWidth, textureHeight, BufferedImage.TYPE_INT_ARGB);
@@ -96,14 +105,6 @@ public class TextRendererUtil {
 
             g.dispose();
 
-            // Create OpenGL texture from the image
-            fontTextureId = GL11.glGenTextures();
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, fontTextureId);
-
-            // Set texture parameters
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-
             // Get image pixel data
             int[] pixels = new int[textureWidth * textureHeight];
             image.getRGB(0, 0, textureWidth, textureHeight, pixels, 0, textureWidth);
@@ -118,11 +119,34 @@ public class TextRendererUtil {
                 buffer.put((byte) ((pixel >> 24) & 0xFF)); // A
             }
             buffer.flip();
+            bakedAtlas = buffer;
+
+        } catch (Exception e) {
+            System.err.println("Error baking font atlas: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    private static synchronized void initialize() {
+        if (initialized) return;
+
+        prebake();
+        if (bakedAtlas == null) return;
+
+        try {
+            // Create OpenGL texture from the image
+            fontTextureId = GL11.glGenTextures();
+            GL11.glBindTexture(GL11.GL_TEXTURE_2D, fontTextureId);
+
+            // Set texture parameters
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
 
             // Upload texture data
-            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, textureWidth, textureHeight,
-                    0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, buffer);
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, ATLAS_WIDTH, ATLAS_HEIGHT,
+                    0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, bakedAtlas);
 
+            bakedAtlas = null;
             initialized = true;
 
         } catch (Exception e) {
@@ -280,12 +304,13 @@ public class TextRendererUtil {
     /**
      * Clean up resources
      */
-    public static void cleanup() {
+    public static synchronized void cleanup() {
         if (fontTextureId > 0) {
             GL11.glDeleteTextures(fontTextureId);
             fontTextureId = -1;
         }
         initialized = false;
+        bakedAtlas = null;
         charMap.clear();
     }
 }
\ No newline at end of file
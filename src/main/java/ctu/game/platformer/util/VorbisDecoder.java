@@ -0,0 +1,78 @@
+package ctu.game.platformer.util;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.openal.AL10;
+import org.lwjgl.stb.STBVorbis;
+import org.lwjgl.stb.STBVorbisInfo;
+import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Decodes Ogg Vorbis with stb_vorbis. Only the compressed file is kept in
+ * memory, PCM is produced on demand.
+ */
+public class VorbisDecoder implements AudioDecoder {
+    // Compressed data, must outlive the decoder handle
+    private final ByteBuffer encoded;
+    private final long handle;
+    private final int channels;
+    private final int sampleRate;
+
+    public VorbisDecoder(String resource) throws Exception {
+        try (InputStream is = VorbisDecoder.class.getClassLoader().getResourceAsStream(resource)) {
+            if (is == null) {
+                throw new RuntimeException("Audio file not found: " + resource);
+            }
+            byte[] data = is.readAllBytes();
+            encoded = BufferUtils.createByteBuffer(data.length);
+            encoded.put(data);
+            encoded.flip();
+        }
+
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer error = stack.mallocInt(1);
+            handle = STBVorbis.stb_vorbis_open_memory(encoded, error, null);
+            if (handle == MemoryUtil.NULL) {
+                throw new RuntimeException("Failed to open Ogg Vorbis file " + resource + ", error: " + error.get(0));
+            }
+
+            STBVorbisInfo info = STBVorbisInfo.malloc(stack);
+            STBVorbis.stb_vorbis_get_info(handle, info);
+            channels = info.channels();
+            sampleRate = info.sample_rate();
+        }
+    }
+
+    @Override
+    public int getFormat() {
+        return channels == 1 ? AL10.AL_FORMAT_MONO16 : AL10.AL_FORMAT_STEREO16;
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) {
+        int outChannels = Math.min(channels, 2);
+        int samples = STBVorbis.stb_vorbis_get_samples_short_interleaved(handle, outChannels, dst.asShortBuffer());
+        int bytes = samples * outChannels * 2;
+        dst.position(dst.position() + bytes);
+        return bytes;
+    }
+
+    @Override
+    public void rewind() {
+        STBVorbis.stb_vorbis_seek_start(handle);
+    }
+
+    @Override
+    public void close() {
+        STBVorbis.stb_vorbis_close(handle);
+    }
+}
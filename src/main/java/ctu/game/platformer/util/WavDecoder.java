@@ -0,0 +1,87 @@
+package ctu.game.platformer.util;
+
+import org.lwjgl.openal.AL10;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Streams PCM WAV data from the classpath in small chunks.
+ */
+public class WavDecoder implements AudioDecoder {
+    private final String resource;
+    private final byte[] chunk = new byte[8192];
+    private AudioInputStream stream;
+    private int format;
+    private int sampleRate;
+
+    public WavDecoder(String resource) throws Exception {
+        this.resource = resource;
+        open();
+
+        AudioFormat audioFormat = stream.getFormat();
+        int channels = audioFormat.getChannels();
+        int bitsPerSample = audioFormat.getSampleSizeInBits();
+
+        if (channels == 1) {
+            format = bitsPerSample == 8 ? AL10.AL_FORMAT_MONO8 : AL10.AL_FORMAT_MONO16;
+        } else {
+            format = bitsPerSample == 8 ? AL10.AL_FORMAT_STEREO8 : AL10.AL_FORMAT_STEREO16;
+        }
+        sampleRate = (int) audioFormat.getSampleRate();
+    }
+
+    private void open() throws Exception {
+        InputStream is = WavDecoder.class.getClassLoader().getResourceAsStream(resource);
+        if (is == null) {
+            throw new RuntimeException("Audio file not found: " + resource);
+        }
+        stream = AudioSystem.getAudioInputStream(new BufferedInputStream(is));
+    }
+
+    @Override
+    public int getFormat() {
+        return format;
+    }
+
+    @Override
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        int total = 0;
+        while (dst.hasRemaining()) {
+            int read = stream.read(chunk, 0, Math.min(chunk.length, dst.remaining()));
+            if (read <= 0) break;
+
+            dst.put(chunk, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    @Override
+    public void rewind() throws Exception {
+        // Resource streams can't seek, reopen instead
+        close();
+        open();
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (stream != null) {
+                stream.close();
+            }
+        } catch (IOException e) {
+            System.err.println("Failed to close audio stream: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package ctu.game.platformer.model.platformer;
+
+import ctu.game.platformer.model.tilemap.MapGenerator;
+import ctu.game.platformer.model.tilemap.TileMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Two deterministic headless runs from the same seed must hash the same
+ * after every tick: one with enemy AI on the calling thread, one on a
+ * fork-join pool. Enough enemies are generated for the AI to actually split
+ * its regions across the pool. scripts/determinism-check.sh compares the
+ * interpreter and JIT tiers on top of this.
+ */
+class HeadlessDeterminismTest {
+    private static final int TICKS = 3_000;
+    private static final long SEED = 7;
+
+    @Test
+    void sameSeedHashesMatchEveryTickWithAndWithoutPool() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            HeadlessRunner inline = runner(null);
+            HeadlessRunner pooled = runner(pool);
+
+            for (int tick = 1; tick <= TICKS; tick++) {
+                inline.tick();
+                pooled.tick();
+                assertEquals(inline.hashState(), pooled.hashState(), "state hash differs at tick " + tick);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static HeadlessRunner runner(ForkJoinPool aiPool) {
+        MapGenerator generator = new MapGenerator(new MapGenerator.Settings()
+                .size(400, 120).objectDensity(40).seed(SEED));
+        TileMap tileMap = new TileMap();
+        tileMap.loadMapData(generator.generate("determinism"));
+
+        float[] spawn = generator.getSpawn();
+        HeadlessRunner runner = new HeadlessRunner(tileMap, spawn[0], spawn[1], SEED, aiPool);
+        runner.getPlayer().setDeterministic(true);
+        return runner;
+    }
+}
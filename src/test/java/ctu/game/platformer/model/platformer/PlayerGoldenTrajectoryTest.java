@@ -0,0 +1,85 @@
+package ctu.game.platformer.model.platformer;
+
+import ctu.game.platformer.model.tilemap.MapGenerator;
+import ctu.game.platformer.model.tilemap.TileMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Plays HeadlessRunner-style scripted input through Player (swept collision)
+ * on generated maps and replays every tick through SteppingPlayer (the 1px
+ * stepping it replaced) from the same state. Each tick must agree: position
+ * within TOLERANCE, because stepping stops up to a pixel short of a tile
+ * where the sweep ends flush, and ground contact and blocked sides exactly.
+ *
+ * Ticks are compared from a shared start rather than as two free runs, since
+ * those sub-pixel rest positions add up over thousands of ticks until a ledge
+ * is left a tick earlier in one of them.
+ */
+class PlayerGoldenTrajectoryTest {
+    private static final float TOLERANCE = 1.0f;
+    private static final int TICKS = 10_000;
+    private static final int SEEDS = 8;
+
+    @Test
+    void sweptCollisionMatchesSteppingEveryTick() {
+        long walls = 0;
+        long landings = 0;
+        long ceilings = 0;
+
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            MapGenerator generator = new MapGenerator(new MapGenerator.Settings().size(400, 120).seed(seed));
+            TileMap tileMap = new TileMap();
+            tileMap.loadMapData(generator.generate("golden"));
+            float[] spawn = generator.getSpawn();
+
+            Player player = new Player(spawn[0], spawn[1], 32, 42);
+            player.setTileMap(tileMap);
+            SteppingPlayer reference = new SteppingPlayer(tileMap, spawn[0], spawn[1], 32, 42);
+            Random input = new Random(seed);
+
+            for (int tick = 0; tick < TICKS; tick++) {
+                if (tick % 120 == 0) {
+                    int direction = input.nextInt(3);
+                    player.setMovingLeft(direction == 0);
+                    player.setMovingRight(direction == 2);
+                    reference.setMovingLeft(direction == 0);
+                    reference.setMovingRight(direction == 2);
+                }
+                reference.copyFrom(player);
+                if (input.nextInt(45) == 0) {
+                    player.jump();
+                    reference.jump();
+                }
+                player.update();
+                reference.update();
+
+                float delta = Math.max(Math.abs(player.getX() - reference.getX()),
+                        Math.abs(player.getY() - reference.getY()));
+                if (delta >= TOLERANCE || player.isOnGround() != reference.isOnGround()
+                        || player.getContactNormalX() != reference.getBlockedX()
+                        || player.getContactNormalY() != reference.getBlockedY()) {
+                    fail(String.format("seed %d tick %d: swept (%.3f, %.3f) ground %b normal (%d, %d), " +
+                                    "stepping (%.3f, %.3f) ground %b blocked (%d, %d)",
+                            seed, tick, player.getX(), player.getY(), player.isOnGround(),
+                            player.getContactNormalX(), player.getContactNormalY(),
+                            reference.getX(), reference.getY(), reference.isOnGround(),
+                            reference.getBlockedX(), reference.getBlockedY()));
+                }
+
+                if (player.getContactNormalX() != 0) walls++;
+                if (player.getContactNormalY() < 0) landings++;
+                if (player.getContactNormalY() > 0) ceilings++;
+            }
+        }
+
+        // The runs have to actually hit walls, floors and ceilings to cover the sweep
+        assertTrue(walls > 0, "no wall contacts");
+        assertTrue(landings > 0, "no floor contacts");
+        assertTrue(ceilings > 0, "no ceiling contacts");
+    }
+}
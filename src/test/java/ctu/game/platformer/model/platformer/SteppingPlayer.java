@@ -0,0 +1,168 @@
+package ctu.game.platformer.model.platformer;
+
+import ctu.game.platformer.model.tilemap.TileMap;
+
+/**
+ * Player physics before TileSweep: both axes walked in 1px steps, each step
+ * checked with 12 hitbox probes, and ground found with three more hitbox
+ * checks shifted below the feet. Kept as the reference the swept resolver is
+ * measured and compared against; update() matches Player.update() otherwise.
+ */
+public class SteppingPlayer {
+    private static final float COLLISION_STEP = 1.0f;
+    private static final float INSET = 2.0f;
+    private static final float SPEED = 5.0f;
+    private static final float JUMP_FORCE = -15.0f;
+    private static final float GRAVITY = 0.8f;
+    private static final float MAX_FALL_SPEED = 20.0f;
+    private static final float AIR_CONTROL = 0.3f;
+    private static final float JUMP_VELOCITY_X = 8.0f * 1.5f;
+
+    private final TileMap tileMap;
+    private final float width;
+    private final float height;
+    private float x;
+    private float y;
+    private float velocityX;
+    private float velocityY;
+    private boolean movingLeft;
+    private boolean movingRight;
+    private boolean onGround;
+    // Side blocked during the last update, as Player reports contact normals
+    private int blockedX;
+    private int blockedY;
+
+    public SteppingPlayer(TileMap tileMap, float x, float y, float width, float height) {
+        this.tileMap = tileMap;
+        this.x = x;
+        this.y = y;
+        this.width = width;
+        this.height = height;
+    }
+
+    public void update() {
+        if (onGround) {
+            float target = 0;
+            if (movingLeft) target -= SPEED;
+            if (movingRight) target += SPEED;
+            float grip = Math.max(0, Math.min(1, tileMap.getFrictionAt(x + width / 2, y + height + 1)));
+            velocityX += (target - velocityX) * grip;
+        } else {
+            if (movingLeft) velocityX = Math.max(velocityX - SPEED * AIR_CONTROL, -SPEED);
+            if (movingRight) velocityX = Math.min(velocityX + SPEED * AIR_CONTROL, SPEED);
+            velocityX *= 0.98f;
+        }
+
+        velocityY += GRAVITY;
+        if (velocityY > MAX_FALL_SPEED) {
+            velocityY = MAX_FALL_SPEED;
+        }
+
+        move();
+        onGround = collides(x, y + height + 1) || collides(x + width / 2, y + height + 1)
+                || collides(x + width, y + height + 1);
+    }
+
+    private void move() {
+        blockedX = 0;
+        blockedY = 0;
+        float remainingX = velocityX;
+        float directionX = Math.signum(remainingX);
+        while (Math.abs(remainingX) > 0) {
+            float step = directionX * Math.min(COLLISION_STEP, Math.abs(remainingX));
+            if (collides(x + step, y)) {
+                blockedX = (int) -directionX;
+                break;
+            }
+            x += step;
+            remainingX -= step;
+        }
+
+        float remainingY = velocityY;
+        float directionY = Math.signum(remainingY);
+        while (Math.abs(remainingY) > 0) {
+            float step = directionY * Math.min(COLLISION_STEP, Math.abs(remainingY));
+            if (collides(x, y + step)) {
+                blockedY = (int) -directionY;
+                if (velocityY > 0) onGround = true;
+                velocityY = 0;
+                break;
+            }
+            y += step;
+            remainingY -= step;
+        }
+    }
+
+    private boolean collides(float px, float py) {
+        return tileMap.isSolid(px + INSET, py) || tileMap.isSolid(px + width / 2, py)
+                || tileMap.isSolid(px + width - INSET, py)
+                || tileMap.isSolid(px, py + height / 4) || tileMap.isSolid(px, py + height / 2)
+                || tileMap.isSolid(px, py + height * 3 / 4)
+                || tileMap.isSolid(px + width, py + height / 4) || tileMap.isSolid(px + width, py + height / 2)
+                || tileMap.isSolid(px + width, py + height * 3 / 4)
+                || tileMap.isSolid(px + INSET, py + height) || tileMap.isSolid(px + width / 2, py + height)
+                || tileMap.isSolid(px + width - INSET, py + height);
+    }
+
+    public void setPosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    // Take over another player's state, to compare single ticks from the same start
+    public void copyFrom(Player player) {
+        x = player.getX();
+        y = player.getY();
+        velocityX = player.getVelocityX();
+        velocityY = player.getVelocityY();
+        onGround = player.isOnGround();
+    }
+
+    public void jump() {
+        if (onGround) {
+            velocityY = JUMP_FORCE;
+            onGround = false;
+            if (movingLeft) {
+                velocityX = -JUMP_VELOCITY_X;
+            } else if (movingRight) {
+                velocityX = JUMP_VELOCITY_X;
+            }
+        }
+    }
+
+    public void setMovingLeft(boolean movingLeft) {
+        this.movingLeft = movingLeft;
+    }
+
+    public void setMovingRight(boolean movingRight) {
+        this.movingRight = movingRight;
+    }
+
+    public float getX() {
+        return x;
+    }
+
+    public float getY() {
+        return y;
+    }
+
+    public float getVelocityX() {
+        return velocityX;
+    }
+
+    public float getVelocityY() {
+        return velocityY;
+    }
+
+    public int getBlockedX() {
+        return blockedX;
+    }
+
+    public int getBlockedY() {
+        return blockedY;
+    }
+
+    public boolean isOnGround() {
+        return onGround;
+    }
+}